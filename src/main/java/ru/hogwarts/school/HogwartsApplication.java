@@ -2,8 +2,10 @@ package ru.hogwarts.school;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class HogwartsApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,75 @@
+package ru.hogwarts.school.config;
+
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Local Ehcache regions behind Hibernate's second-level and query caches. Every region is
+ * created here up front with its own time-to-live and heap size, read from
+ * {@code entity-cache.regions.<region>.ttl} and {@code .max-entries} and falling back to
+ * {@code entity-cache.default.*}; Hibernate is set to fail on any region not listed.
+ * The update timestamps region never expires, otherwise cached query results could outlive
+ * the record of the writes that made them stale.
+ */
+@Configuration
+public class EntityCacheConfiguration {
+
+    public static final String STUDENT_REGION = "student";
+    public static final String FACULTY_REGION = "faculty";
+    public static final String FACULTY_QUERY_REGION = "faculty-queries";
+    public static final String DEFAULT_QUERY_REGION = "default-query-results-region";
+    public static final String TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    private static final List<String> EXPIRING_REGIONS =
+            List.of(STUDENT_REGION, FACULTY_REGION, FACULTY_QUERY_REGION, DEFAULT_QUERY_REGION);
+
+    @Bean(destroyMethod = "close")
+    public CacheManager entityCacheManager(Environment environment) {
+        Duration defaultTtl = environment.getProperty("entity-cache.default.ttl", Duration.class, Duration.ofMinutes(10));
+        long defaultMaxEntries = environment.getProperty("entity-cache.default.max-entries", Long.class, 10_000L);
+        ConfigurationBuilder configuration = ConfigurationBuilder.newConfigurationBuilder();
+        for (String region : EXPIRING_REGIONS) {
+            Duration ttl = environment.getProperty("entity-cache.regions." + region + ".ttl", Duration.class, defaultTtl);
+            configuration = configuration.withCache(region, regionConfiguration(maxEntries(environment, region, defaultMaxEntries))
+                    .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(ttl)));
+        }
+        configuration = configuration.withCache(TIMESTAMPS_REGION,
+                regionConfiguration(maxEntries(environment, TIMESTAMPS_REGION, 1_000L))
+                        .withExpiry(ExpiryPolicyBuilder.noExpiration()));
+        // A URI of its own per application context: the provider hands out one shared manager
+        // per URI, and test contexts must not see each other's regions.
+        EhcacheCachingProvider provider =
+                (EhcacheCachingProvider) Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        return provider.getCacheManager(URI.create("urn:hogwarts:entity-cache:" + UUID.randomUUID()),
+                configuration.build());
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer entityCacheHibernateProperties(CacheManager entityCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, entityCacheManager);
+    }
+
+    private static long maxEntries(Environment environment, String region, long defaultMaxEntries) {
+        return environment.getProperty("entity-cache.regions." + region + ".max-entries", Long.class, defaultMaxEntries);
+    }
+
+    private static CacheConfigurationBuilder<Object, Object> regionConfiguration(long maxEntries) {
+        return CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class,
+                ResourcePoolsBuilder.heap(maxEntries));
+    }
+}
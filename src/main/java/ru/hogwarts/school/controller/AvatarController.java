@@ -1,22 +1,29 @@
 package ru.hogwarts.school.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import ru.hogwarts.school.interfaces.AvatarImportService;
 import ru.hogwarts.school.interfaces.AvatarService;
 import ru.hogwarts.school.model.Avatar;
+import ru.hogwarts.school.model.dto.AvatarCacheStatistics;
+import ru.hogwarts.school.model.dto.AvatarImportStatus;
+import ru.hogwarts.school.model.dto.AvatarPage;
+import ru.hogwarts.school.service.storage.AvatarVariant;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
+import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Optional;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/avatar")
@@ -25,39 +32,107 @@ public class AvatarController {
     @Autowired
     AvatarService avatarService;
 
+    @Autowired
+    AvatarImportService avatarImportService;
+
     @PostMapping(value = "/{studentId}/avatar", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<String> uploadAvatar(@PathVariable Long studentId, @RequestParam MultipartFile avatar) throws IOException {
         avatarService.uploadAvatar(studentId, avatar);
         return ResponseEntity.ok().build();
     }
 
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<AvatarImportStatus> importAvatars(@RequestParam MultipartFile archive) throws IOException {
+        AvatarImportStatus status = avatarImportService.startImport(archive);
+        return ResponseEntity.accepted()
+                .location(URI.create("/avatar/import/" + status.id()))
+                .body(status);
+    }
+
+    @GetMapping("/import/{jobId}")
+    public ResponseEntity<AvatarImportStatus> getImportStatus(@PathVariable UUID jobId) {
+        return ResponseEntity.of(avatarImportService.findImport(jobId));
+    }
+
     @GetMapping(value = "/{id}/avatar-from-db")
-    public ResponseEntity<byte[]> downloadAvatar(@PathVariable Long id) {
-        Avatar avatar = avatarService.findAvatar(id);
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.parseMediaType(avatar.getMediaType()));
-        headers.setContentLength(avatar.getData().length);
-        return ResponseEntity.status(HttpStatus.OK).headers(headers).body(avatar.getData());
+    public void downloadAvatarFromDb(@PathVariable Long id,
+                                     @RequestParam(required = false) Integer size,
+                                     HttpServletRequest request,
+                                     HttpServletResponse response) throws IOException {
+        if (sendVariant(id, size, request, response)) {
+            return;
+        }
+        if (!sendFromDb(id, request, response) && !sendFile(id, request, response)) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+        }
     }
 
     @GetMapping(value = "/{id}/avatar-from-file")
-    public void downloadAvatar(@PathVariable Long id, HttpServletResponse response) throws IOException {
+    public void downloadAvatarFromFile(@PathVariable Long id,
+                                       @RequestParam(required = false) Integer size,
+                                       HttpServletRequest request,
+                                       HttpServletResponse response) throws IOException {
+        if (sendVariant(id, size, request, response)) {
+            return;
+        }
+        if (!sendFile(id, request, response) && !sendFromDb(id, request, response)) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+        }
+    }
+
+    private boolean sendFromDb(Long id, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        return avatarService.writeAvatarData(id, (mediaType, length, checksum) -> {
+            if (checksum != null && new ServletWebRequest(request, response).checkNotModified("\"" + checksum + "\"")) {
+                return null;
+            }
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(mediaType);
+            response.setContentLengthLong(length);
+            return response.getOutputStream();
+        });
+    }
+
+    private boolean sendFile(Long id, HttpServletRequest request, HttpServletResponse response) throws IOException {
         Avatar avatar = avatarService.findAvatar(id);
-        Path path = Path.of(avatar.getFilePath());
-        try (InputStream is = Files.newInputStream(path);
-             OutputStream os = response.getOutputStream();) {
-            response.setStatus(200);
-            response.setContentType(avatar.getMediaType());
-            response.setContentLength((int) avatar.getFileSize());
-            is.transferTo(os);
+        if (avatar.getFilePath() == null || !Files.exists(Path.of(avatar.getFilePath()))) {
+            return false;
         }
+        AvatarFileSender.send(request, response, Path.of(avatar.getFilePath()),
+                avatar.getMediaType(), avatar.getChecksum());
+        return true;
+    }
+
+    private boolean sendVariant(Long id, Integer size, HttpServletRequest request,
+                                HttpServletResponse response) throws IOException {
+        if (size == null || size <= 0) {
+            return false;
+        }
+        Optional<AvatarVariant> variant = avatarService.findVariant(id, size);
+        if (variant.isEmpty()) {
+            return false;
+        }
+        AvatarFileSender.send(request, response, variant.get().path(), variant.get().mediaType(), variant.get().tag());
+        return true;
     }
 
     @GetMapping("/pageable")
     public ResponseEntity<Page<Avatar>> findStudents(@RequestParam(required = false) Integer pageNumber,
                                                      @RequestParam(required = false) Integer pageSize) {
-        return ResponseEntity.ok(avatarService.findAvatarsPageable(pageNumber, pageSize));
+        return ResponseEntity.ok()
+                .header(HttpHeaders.LINK, "</avatar/metadata>; rel=\"alternate\"")
+                .body(avatarService.findAvatarsPageable(pageNumber, pageSize));
+    }
+
+    @GetMapping("/metadata")
+    public ResponseEntity<AvatarPage> findAvatarsMetadata(@RequestParam(required = false) Long after,
+                                                          @RequestParam(required = false) Integer pageSize,
+                                                          @RequestParam(defaultValue = "false") boolean withTotal) {
+        return ResponseEntity.ok(avatarService.findAvatarsAfter(after, pageSize, withTotal));
+    }
 
+    @GetMapping("/cache/statistics")
+    public ResponseEntity<AvatarCacheStatistics> getCacheStatistics() {
+        return ResponseEntity.ok(avatarService.getCacheStatistics());
     }
 
 }
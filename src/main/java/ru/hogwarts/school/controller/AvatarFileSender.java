@@ -0,0 +1,111 @@
+package ru.hogwarts.school.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Serves avatar files with conditional request and byte range support. Only Tomcat's
+ * sendfile path is zero-copy: the body is handed to the container, which writes the file
+ * to the socket itself. Where sendfile is unavailable (other connectors, TLS through JSSE,
+ * mock requests) the range is copied to the response stream through a user-space buffer.
+ */
+final class AvatarFileSender {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private AvatarFileSender() {
+    }
+
+    static void send(HttpServletRequest request, HttpServletResponse response,
+                     Path path, String mediaType, String tag) throws IOException {
+        long length = Files.size(path);
+        long lastModified = Files.getLastModifiedTime(path).toMillis();
+        String etag = tag != null ? "\"" + tag + "\"" : null;
+
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
+        }
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setContentType(mediaType);
+
+        long start = 0;
+        long count = length;
+        HttpRange range = requestedRange(request, etag, lastModified);
+        if (range != null) {
+            try {
+                start = range.getRangeStart(length);
+                count = range.getRangeEnd(length) - start + 1;
+            } catch (IllegalArgumentException e) {
+                count = 0;
+            }
+            if (start >= length || count <= 0) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE,
+                    "bytes " + start + "-" + (start + count - 1) + "/" + length);
+        } else {
+            response.setStatus(HttpServletResponse.SC_OK);
+        }
+        response.setContentLengthLong(count);
+
+        if (HttpMethod.HEAD.matches(request.getMethod())) {
+            return;
+        }
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, path.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + count);
+            return;
+        }
+        try (InputStream in = Files.newInputStream(path)) {
+            StreamUtils.copyRange(in, response.getOutputStream(), start, start + count - 1);
+        }
+    }
+
+    private static HttpRange requestedRange(HttpServletRequest request, String etag, long lastModified) {
+        String header = request.getHeader(HttpHeaders.RANGE);
+        if (header == null || !rangeStillValid(request, etag, lastModified)) {
+            return null;
+        }
+        List<HttpRange> ranges;
+        try {
+            ranges = HttpRange.parseRanges(header);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        return ranges.size() == 1 ? ranges.get(0) : null;
+    }
+
+    private static boolean rangeStillValid(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(etag);
+        }
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) / 1000 == lastModified / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
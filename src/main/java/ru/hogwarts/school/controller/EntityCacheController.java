@@ -0,0 +1,22 @@
+package ru.hogwarts.school.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.hogwarts.school.interfaces.EntityCacheService;
+import ru.hogwarts.school.model.dto.EntityCacheStatistics;
+
+@RestController
+@RequestMapping("/entity-cache")
+public class EntityCacheController {
+
+    @Autowired
+    EntityCacheService entityCacheService;
+
+    @GetMapping("/statistics")
+    public ResponseEntity<EntityCacheStatistics> getStatistics() {
+        return ResponseEntity.ok(entityCacheService.getStatistics());
+    }
+}
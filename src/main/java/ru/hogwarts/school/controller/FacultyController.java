@@ -1,15 +1,24 @@
 package ru.hogwarts.school.controller;
 
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 import ru.hogwarts.school.interfaces.FacultyService;
 import ru.hogwarts.school.model.Faculty;
 import ru.hogwarts.school.model.Student;
 import ru.hogwarts.school.model.dto.FacultyDto;
+import ru.hogwarts.school.model.dto.FacultyPatch;
+import ru.hogwarts.school.model.dto.FacultyRosterPage;
+import ru.hogwarts.school.model.dto.FacultyRosterSort;
+import ru.hogwarts.school.model.dto.FacultyStatistics;
+import ru.hogwarts.school.model.dto.MultiGetResponse;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 @RestController
@@ -27,6 +36,24 @@ public class FacultyController {
         return faculty.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/batch")
+    public MultiGetResponse<Faculty> getFacultiesByIds(@RequestParam List<Long> ids) {
+        return facultyService.getFaculties(ids);
+    }
+
+    @PatchMapping("/{id}")
+    public ResponseEntity<Faculty> patchFaculty(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody FacultyPatch patch) {
+        try {
+            Faculty faculty = facultyService.patchFaculty(id, patch, VersionTags.expectedVersion(ifMatch));
+            return ResponseEntity.ok().eTag(VersionTags.of(faculty.getVersion())).body(faculty);
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     @PostMapping
     public Faculty createFaculty(@RequestBody FacultyDto facultyDto) {
         return facultyService.createFaculty(facultyDto);
@@ -65,6 +92,37 @@ public class FacultyController {
         return ResponseEntity.ok(Collections.emptyList());
     }
 
+    @GetMapping("/stats")
+    public List<FacultyStatistics> getFacultyStatistics() {
+        return facultyService.getStatistics();
+    }
+
+    @GetMapping("/{id}/stats")
+    public ResponseEntity<FacultyStatistics> getFacultyStatistics(@PathVariable Long id) {
+        return facultyService.getStatistics(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{id}/students")
+    public ResponseEntity<FacultyRosterPage> getFacultyRoster(@PathVariable Long id,
+                                                              @RequestParam(defaultValue = "id") String sort,
+                                                              @RequestParam(required = false) String after,
+                                                              @RequestParam(required = false) Integer pageSize,
+                                                              @RequestParam(required = false) Integer minAge,
+                                                              @RequestParam(required = false) Integer maxAge,
+                                                              @RequestParam(defaultValue = "false") boolean withTotal) {
+        FacultyRosterSort rosterSort;
+        try {
+            rosterSort = FacultyRosterSort.valueOf(sort.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported roster sort: " + sort);
+        }
+        return facultyService.findRoster(id, rosterSort, after, pageSize, minAge, maxAge, withTotal)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
     @GetMapping("/student/{faculty_id}")
     public ResponseEntity<Collection<Student>> getStudentFaculty(@PathVariable("faculty_id") Long facultyId) {
         Optional<Collection<Student>> students = facultyService.findStudentsByFacultyId(facultyId);
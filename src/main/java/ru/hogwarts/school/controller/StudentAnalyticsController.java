@@ -0,0 +1,43 @@
+package ru.hogwarts.school.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import ru.hogwarts.school.interfaces.StudentAnalyticsService;
+import ru.hogwarts.school.model.dto.StudentAnalyticsGroup;
+import ru.hogwarts.school.model.dto.StudentDimension;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RestController
+@RequestMapping("/student")
+public class StudentAnalyticsController {
+
+    @Autowired
+    StudentAnalyticsService studentAnalyticsService;
+
+    @GetMapping("/analytics")
+    public List<StudentAnalyticsGroup> getAnalytics(@RequestParam(required = false) List<String> groupBy,
+                                                    @RequestParam(required = false) Long facultyId,
+                                                    @RequestParam(required = false) Integer minAge,
+                                                    @RequestParam(required = false) Integer maxAge) {
+        List<StudentDimension> dimensions = new ArrayList<>();
+        if (groupBy != null) {
+            for (String value : groupBy) {
+                dimensions.add(parseDimension(value));
+            }
+        }
+        return studentAnalyticsService.aggregate(dimensions, facultyId, minAge, maxAge);
+    }
+
+    private static StudentDimension parseDimension(String value) {
+        for (StudentDimension dimension : StudentDimension.values()) {
+            if (dimension.key().equalsIgnoreCase(value.trim()) || dimension.name().equalsIgnoreCase(value.trim())) {
+                return dimension;
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported group-by dimension: " + value);
+    }
+}
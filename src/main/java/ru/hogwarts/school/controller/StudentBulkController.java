@@ -0,0 +1,69 @@
+package ru.hogwarts.school.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.hogwarts.school.interfaces.StudentBatchService;
+import ru.hogwarts.school.interfaces.StudentExportService;
+import ru.hogwarts.school.interfaces.StudentImportService;
+import ru.hogwarts.school.model.dto.StudentBatchResponse;
+import ru.hogwarts.school.model.dto.StudentDto;
+import ru.hogwarts.school.model.dto.StudentExportFormat;
+import ru.hogwarts.school.model.dto.StudentImportReport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+@RestController
+@RequestMapping("/student")
+public class StudentBulkController {
+
+    @Autowired
+    StudentBatchService studentBatchService;
+
+    @Autowired
+    StudentExportService studentExportService;
+
+    @Autowired
+    StudentImportService studentImportService;
+
+    @PostMapping("/batch")
+    public ResponseEntity<StudentBatchResponse> upsertStudents(@RequestBody List<StudentDto> students) {
+        return ResponseEntity.ok(studentBatchService.upsertStudents(students));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportStudents(@RequestParam(defaultValue = "ndjson") String format) {
+        StudentExportFormat exportFormat;
+        try {
+            exportFormat = StudentExportFormat.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported export format: " + format);
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.mediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"students." + exportFormat.name().toLowerCase() + "\"")
+                .body(out -> studentExportService.exportStudents(exportFormat, out));
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<StudentImportReport> importStudents(@RequestParam MultipartFile file) throws IOException {
+        try (InputStream csv = file.getInputStream()) {
+            return ResponseEntity.ok(studentImportService.importStudents(csv));
+        }
+    }
+
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<StudentImportReport> importStudents(HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(studentImportService.importStudents(request.getInputStream()));
+    }
+}
@@ -2,16 +2,21 @@ package ru.hogwarts.school.controller;
 
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.hogwarts.school.interfaces.StudentService;
 import ru.hogwarts.school.model.Faculty;
 import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.model.dto.MultiGetResponse;
+import ru.hogwarts.school.model.dto.StudentAgeCount;
 import ru.hogwarts.school.model.dto.StudentDto;
+import ru.hogwarts.school.model.dto.StudentPatch;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 @RestController
@@ -32,6 +37,11 @@ public class StudentController {
         return student.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/batch")
+    public MultiGetResponse<Student> getStudentsByIds(@RequestParam List<Long> ids) {
+        return studentService.getExistentStudents(ids);
+    }
+
     @PutMapping("/update-student/{id}")
     public ResponseEntity<Student> updateStudent(
             @PathVariable Long id,
@@ -44,6 +54,19 @@ public class StudentController {
         }
     }
 
+    @PatchMapping("/{id}")
+    public ResponseEntity<Student> patchStudent(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody StudentPatch patch) {
+        try {
+            Student student = studentService.patchStudent(id, patch, VersionTags.expectedVersion(ifMatch));
+            return ResponseEntity.ok().eTag(VersionTags.of(student.getVersion())).body(student);
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+    }
+
     @DeleteMapping("/delete-student/{id}")
     public ResponseEntity<Void> deleteStudent(@PathVariable Long id) {
         studentService.deleteExistentStudent(id);
@@ -51,7 +74,7 @@ public class StudentController {
     }
 
     @GetMapping
-    public ResponseEntity<Collection<Student>> findStudents(@RequestParam(required = false) int age) {
+    public ResponseEntity<Iterable<Student>> findStudents(@RequestParam(required = false) int age) {
         if (age > 0) {
             return ResponseEntity.ok(studentService.findByAge(age));
         }
@@ -68,13 +91,29 @@ public class StudentController {
         return ResponseEntity.ok(studentService.findStudentsAverageAge());
     }
 
+    @GetMapping("/age-histogram")
+    public ResponseEntity<List<StudentAgeCount>> findAgeHistogram() {
+        return ResponseEntity.ok(studentService.findAgeHistogram());
+    }
+
     @GetMapping("/last-five")
     public ResponseEntity<Collection<Student>> findLastFiveStudents() {
         return ResponseEntity.ok(studentService.findLastFiveStudents());
     }
 
+    @GetMapping("/last")
+    public ResponseEntity<Collection<Student>> findLastStudents(@RequestParam(defaultValue = "5") int n) {
+        return ResponseEntity.ok(studentService.findLastStudents(n));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<Collection<Student>> searchStudents(@RequestParam String q,
+                                                              @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(studentService.searchByName(q, limit));
+    }
+
     @GetMapping("/between/{min_age}")
-    public ResponseEntity<Collection<Student>> findStudentsWhereAgeBetweenValues(
+    public ResponseEntity<Iterable<Student>> findStudentsWhereAgeBetweenValues(
             @PathVariable(name = "min_age", required = false) Integer minAge,
             @RequestParam(required = false) Integer maxAge) {
 
@@ -0,0 +1,41 @@
+package ru.hogwarts.school.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Entity versions travel as strong ETags ({@code "3"}); an {@code If-Match} carrying one
+ * turns a write into a compare-and-set against that version.
+ */
+final class VersionTags {
+
+    private VersionTags() {
+    }
+
+    static String of(Long version) {
+        return String.valueOf(version);
+    }
+
+    /**
+     * Returns the version an {@code If-Match} header requires, or {@code null} when the header
+     * is absent or {@code *}. {@code If-Match} uses strong comparison, so a weak tag never
+     * matches and fails the precondition.
+     */
+    static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "If-Match requires a strong entity tag");
+        }
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+        try {
+            return Long.parseLong(tag);
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "If-Match must carry a single entity version");
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package ru.hogwarts.school.interfaces;
+
+import org.springframework.web.multipart.MultipartFile;
+import ru.hogwarts.school.model.dto.AvatarImportStatus;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface AvatarImportService {
+    AvatarImportStatus startImport(MultipartFile archive) throws IOException;
+
+    Optional<AvatarImportStatus> findImport(UUID jobId);
+}
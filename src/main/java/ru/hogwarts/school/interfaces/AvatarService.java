@@ -3,8 +3,13 @@ package ru.hogwarts.school.interfaces;
 import org.springframework.data.domain.Page;
 import org.springframework.web.multipart.MultipartFile;
 import ru.hogwarts.school.model.Avatar;
+import ru.hogwarts.school.model.dto.AvatarCacheStatistics;
+import ru.hogwarts.school.model.dto.AvatarPage;
+import ru.hogwarts.school.service.storage.AvatarVariant;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Optional;
 
 public interface AvatarService {
 
@@ -13,5 +18,22 @@ public interface AvatarService {
 
     Avatar findAvatar(Long id);
 
+    boolean writeAvatarData(Long studentId, AvatarDataWriter writer) throws IOException;
+
     Page<Avatar> findAvatarsPageable(Integer pageNumber, Integer pageSize);
+
+    AvatarPage findAvatarsAfter(Long after, Integer pageSize, boolean withTotal);
+
+    Optional<AvatarVariant> findVariant(Long studentId, int size);
+
+    AvatarCacheStatistics getCacheStatistics();
+
+    @FunctionalInterface
+    interface AvatarDataWriter {
+
+        /**
+         * Returns the stream to write the avatar bytes to, or {@code null} to skip the body.
+         */
+        OutputStream open(String mediaType, long length, String checksum) throws IOException;
+    }
 }
@@ -0,0 +1,18 @@
+package ru.hogwarts.school.interfaces;
+
+import ru.hogwarts.school.service.storage.StoredAvatar;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+public interface AvatarStore {
+
+    StoredAvatar store(InputStream content) throws IOException;
+
+    Path resolve(String checksum);
+
+    Path resolveVariant(String checksum, int size, String format);
+
+    void release(String checksum) throws IOException;
+}
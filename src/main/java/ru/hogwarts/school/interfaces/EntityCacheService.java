@@ -0,0 +1,10 @@
+package ru.hogwarts.school.interfaces;
+
+import ru.hogwarts.school.model.dto.EntityCacheStatistics;
+
+public interface EntityCacheService {
+
+    EntityCacheStatistics getStatistics();
+
+    void evictStudents();
+}
@@ -3,8 +3,14 @@ package ru.hogwarts.school.interfaces;
 import ru.hogwarts.school.model.Faculty;
 import ru.hogwarts.school.model.Student;
 import ru.hogwarts.school.model.dto.FacultyDto;
+import ru.hogwarts.school.model.dto.FacultyPatch;
+import ru.hogwarts.school.model.dto.FacultyRosterPage;
+import ru.hogwarts.school.model.dto.FacultyRosterSort;
+import ru.hogwarts.school.model.dto.FacultyStatistics;
+import ru.hogwarts.school.model.dto.MultiGetResponse;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface FacultyService {
@@ -13,8 +19,12 @@ public interface FacultyService {
 
     Optional<Faculty> getFaculty(Long id);
 
+    MultiGetResponse<Faculty> getFaculties(List<Long> ids);
+
     Faculty updateFaculty(Long facultyId, FacultyDto facultyDto);
 
+    Faculty patchFaculty(Long facultyId, FacultyPatch patch, Long expectedVersion);
+
     void deleteFaculty(Long id);
 
     Collection<Faculty> findByColor(String color);
@@ -22,4 +32,11 @@ public interface FacultyService {
     Collection<Faculty> findByNameOrColorIgnoreCase(String value);
 
     Optional<Collection<Student>> findStudentsByFacultyId(Long facultyId);
+
+    List<FacultyStatistics> getStatistics();
+
+    Optional<FacultyStatistics> getStatistics(Long facultyId);
+
+    Optional<FacultyRosterPage> findRoster(Long facultyId, FacultyRosterSort sort, String after, Integer pageSize,
+                                           Integer minAge, Integer maxAge, boolean withTotal);
 }
@@ -0,0 +1,10 @@
+package ru.hogwarts.school.interfaces;
+
+import ru.hogwarts.school.model.dto.StudentAnalyticsGroup;
+import ru.hogwarts.school.model.dto.StudentDimension;
+
+import java.util.List;
+
+public interface StudentAnalyticsService {
+    List<StudentAnalyticsGroup> aggregate(List<StudentDimension> groupBy, Long facultyId, Integer minAge, Integer maxAge);
+}
@@ -0,0 +1,10 @@
+package ru.hogwarts.school.interfaces;
+
+import ru.hogwarts.school.model.dto.StudentBatchResponse;
+import ru.hogwarts.school.model.dto.StudentDto;
+
+import java.util.List;
+
+public interface StudentBatchService {
+    StudentBatchResponse upsertStudents(List<StudentDto> students);
+}
@@ -0,0 +1,10 @@
+package ru.hogwarts.school.interfaces;
+
+import ru.hogwarts.school.model.dto.StudentExportFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface StudentExportService {
+    void exportStudents(StudentExportFormat format, OutputStream out) throws IOException;
+}
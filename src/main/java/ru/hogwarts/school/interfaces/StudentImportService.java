@@ -0,0 +1,10 @@
+package ru.hogwarts.school.interfaces;
+
+import ru.hogwarts.school.model.dto.StudentImportReport;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface StudentImportService {
+    StudentImportReport importStudents(InputStream csv) throws IOException;
+}
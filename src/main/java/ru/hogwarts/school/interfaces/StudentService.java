@@ -2,9 +2,13 @@ package ru.hogwarts.school.interfaces;
 
 import ru.hogwarts.school.model.Faculty;
 import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.model.dto.MultiGetResponse;
+import ru.hogwarts.school.model.dto.StudentAgeCount;
 import ru.hogwarts.school.model.dto.StudentDto;
+import ru.hogwarts.school.model.dto.StudentPatch;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface StudentService {
@@ -13,19 +17,29 @@ public interface StudentService {
 
     Optional<Student> getExistentStudent(Long id);
 
+    MultiGetResponse<Student> getExistentStudents(List<Long> ids);
+
     Optional<Faculty> getStudentFaculty(Long studentId);
 
     Student updateExistentStudent(Long studentId, StudentDto student);
 
+    Student patchStudent(Long studentId, StudentPatch patch, Long expectedVersion);
+
     void deleteExistentStudent(Long id);
 
-    Collection<Student> findByAge(int age);
+    Iterable<Student> findByAge(int age);
 
     Long findStudentsQuantity();
 
-    Collection<Student> findByAgeBetweenValues(int minAge, int maxAge);
+    Iterable<Student> findByAgeBetweenValues(int minAge, int maxAge);
 
     Double findStudentsAverageAge();
 
     Collection<Student> findLastFiveStudents();
+
+    Collection<Student> findLastStudents(int n);
+
+    Collection<Student> searchByName(String query, int limit);
+
+    List<StudentAgeCount> findAgeHistogram();
 }
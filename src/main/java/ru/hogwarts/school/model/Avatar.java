@@ -13,13 +13,15 @@ import lombok.NoArgsConstructor;
 @Entity
 public class Avatar {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "avatar_id_seq")
+    @SequenceGenerator(name = "avatar_id_seq", sequenceName = "avatar_id_seq", allocationSize = 50)
     private Long id;
     private String filePath;
     private long fileSize;
     private String mediaType;
-    @Lob
-    private byte[] data;
+    private String checksum;
+    @Enumerated(EnumType.STRING)
+    private AvatarStorage storage;
     @OneToOne
     private Student student;
 }
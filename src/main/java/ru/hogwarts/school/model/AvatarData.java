@@ -0,0 +1,30 @@
+package ru.hogwarts.school.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.sql.Blob;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "avatar_data")
+public class AvatarData {
+    @Id
+    private Long id;
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "avatar_id")
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Avatar avatar;
+    @Lob
+    private Blob data;
+    @Column(name = "inline_data", length = 1048576)
+    private byte[] inlineData;
+}
@@ -0,0 +1,24 @@
+package ru.hogwarts.school.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Number of avatar rows that point at a stored file, keyed by the file's checksum.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "avatar_file")
+public class AvatarFile {
+    @Id
+    @Column(length = 64)
+    private String checksum;
+    private long refs;
+}
@@ -0,0 +1,7 @@
+package ru.hogwarts.school.model;
+
+public enum AvatarStorage {
+    INLINE,
+    FILE,
+    LOB
+}
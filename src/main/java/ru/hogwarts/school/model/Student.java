@@ -6,20 +6,35 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import ru.hogwarts.school.config.EntityCacheConfiguration;
 
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@Cacheable
+@DynamicUpdate
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = EntityCacheConfiguration.STUDENT_REGION)
 public class Student {
+    /**
+     * Name of the faculty reference constraint, as created by the Liquibase changelog.
+     */
+    public static final String FACULTY_FOREIGN_KEY = "fk_student_faculty";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "student_id_seq")
+    @SequenceGenerator(name = "student_id_seq", sequenceName = "student_id_seq", allocationSize = 50)
     private Long id;
+    @Version
+    private Long version;
     private String name;
     private int age;
-    @ManyToOne
-    @JoinColumn(name = "faculty_id")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "faculty_id", foreignKey = @ForeignKey(name = Student.FACULTY_FOREIGN_KEY))
     @JsonBackReference
     private Faculty faculty;
 
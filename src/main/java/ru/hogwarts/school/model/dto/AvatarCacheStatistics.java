@@ -0,0 +1,9 @@
+package ru.hogwarts.school.model.dto;
+
+public record AvatarCacheStatistics(long hits,
+                                    long misses,
+                                    long evictions,
+                                    int entries,
+                                    long usedBytes,
+                                    long maxBytes) {
+}
@@ -0,0 +1,4 @@
+package ru.hogwarts.school.model.dto;
+
+public record AvatarImportError(String entry, String message) {
+}
@@ -0,0 +1,8 @@
+package ru.hogwarts.school.model.dto;
+
+public enum AvatarImportState {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
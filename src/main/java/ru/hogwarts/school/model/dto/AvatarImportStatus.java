@@ -0,0 +1,15 @@
+package ru.hogwarts.school.model.dto;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public record AvatarImportStatus(UUID id,
+                                 AvatarImportState state,
+                                 int entries,
+                                 int imported,
+                                 int failed,
+                                 List<AvatarImportError> errors,
+                                 Instant startedAt,
+                                 Instant finishedAt) {
+}
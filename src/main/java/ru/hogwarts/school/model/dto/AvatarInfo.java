@@ -0,0 +1,8 @@
+package ru.hogwarts.school.model.dto;
+
+public record AvatarInfo(Long id,
+                         Long studentId,
+                         long fileSize,
+                         String mediaType,
+                         String checksum) {
+}
@@ -0,0 +1,6 @@
+package ru.hogwarts.school.model.dto;
+
+import java.util.List;
+
+public record AvatarPage(List<AvatarInfo> items, Long nextCursor, Long total) {
+}
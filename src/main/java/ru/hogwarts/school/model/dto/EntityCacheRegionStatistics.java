@@ -0,0 +1,8 @@
+package ru.hogwarts.school.model.dto;
+
+public record EntityCacheRegionStatistics(String region,
+                                          long hits,
+                                          long misses,
+                                          long puts,
+                                          long entries) {
+}
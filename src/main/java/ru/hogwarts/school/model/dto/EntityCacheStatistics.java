@@ -0,0 +1,11 @@
+package ru.hogwarts.school.model.dto;
+
+import java.util.List;
+
+public record EntityCacheStatistics(long entityLoads,
+                                    long entityFetches,
+                                    long queryExecutions,
+                                    long queryCacheHits,
+                                    long queryCacheMisses,
+                                    List<EntityCacheRegionStatistics> regions) {
+}
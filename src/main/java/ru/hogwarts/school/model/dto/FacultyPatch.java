@@ -0,0 +1,7 @@
+package ru.hogwarts.school.model.dto;
+
+/**
+ * Partial faculty update: {@code null} fields are left unchanged.
+ */
+public record FacultyPatch(String name, String color) {
+}
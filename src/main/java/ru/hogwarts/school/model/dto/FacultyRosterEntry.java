@@ -0,0 +1,4 @@
+package ru.hogwarts.school.model.dto;
+
+public record FacultyRosterEntry(Long id, String name, int age) {
+}
@@ -0,0 +1,6 @@
+package ru.hogwarts.school.model.dto;
+
+import java.util.List;
+
+public record FacultyRosterPage(List<FacultyRosterEntry> items, String nextCursor, Long total) {
+}
@@ -0,0 +1,7 @@
+package ru.hogwarts.school.model.dto;
+
+public enum FacultyRosterSort {
+    ID,
+    NAME,
+    AGE
+}
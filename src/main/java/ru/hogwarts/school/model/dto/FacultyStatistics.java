@@ -0,0 +1,12 @@
+package ru.hogwarts.school.model.dto;
+
+import java.time.Instant;
+
+/**
+ * Student statistics of one faculty as of {@code refreshedAt}; ages are {@code null} for a
+ * faculty without students.
+ */
+public record FacultyStatistics(Long facultyId, String name, long students, Double averageAge, Integer minAge,
+                                Integer maxAge, long studentsWithAvatar, double avatarCoverage,
+                                Instant refreshedAt) {
+}
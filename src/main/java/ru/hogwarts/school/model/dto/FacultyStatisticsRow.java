@@ -0,0 +1,5 @@
+package ru.hogwarts.school.model.dto;
+
+public record FacultyStatisticsRow(Long facultyId, long students, Double averageAge, Integer minAge, Integer maxAge,
+                                   long studentsWithAvatar) {
+}
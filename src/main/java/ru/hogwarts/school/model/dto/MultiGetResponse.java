@@ -0,0 +1,9 @@
+package ru.hogwarts.school.model.dto;
+
+import java.util.List;
+
+/**
+ * Entities found for a list of ids, in request order, and the ids that matched nothing.
+ */
+public record MultiGetResponse<T>(List<T> found, List<Long> missing) {
+}
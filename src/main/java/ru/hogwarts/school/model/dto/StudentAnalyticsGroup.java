@@ -0,0 +1,11 @@
+package ru.hogwarts.school.model.dto;
+
+import java.util.Map;
+
+/**
+ * One group of an analytics query: the value of every grouped dimension ({@code null} faculty
+ * for students without one) and the aggregates over the students in the group.
+ */
+public record StudentAnalyticsGroup(Map<String, Long> key, long students, double averageAge, int minAge,
+                                    int maxAge) {
+}
@@ -0,0 +1,6 @@
+package ru.hogwarts.school.model.dto;
+
+import java.util.List;
+
+public record StudentBatchResponse(int created, int updated, int rejected, List<StudentBatchResult> results) {
+}
@@ -0,0 +1,4 @@
+package ru.hogwarts.school.model.dto;
+
+public record StudentBatchResult(int index, Long id, StudentBatchStatus status, String error) {
+}
@@ -0,0 +1,7 @@
+package ru.hogwarts.school.model.dto;
+
+public enum StudentBatchStatus {
+    CREATED,
+    UPDATED,
+    REJECTED
+}
@@ -0,0 +1,17 @@
+package ru.hogwarts.school.model.dto;
+
+public enum StudentDimension {
+    FACULTY("faculty"),
+    AGE("age"),
+    NAME_LENGTH("nameLength");
+
+    private final String key;
+
+    StudentDimension(String key) {
+        this.key = key;
+    }
+
+    public String key() {
+        return key;
+    }
+}
@@ -0,0 +1,16 @@
+package ru.hogwarts.school.model.dto;
+
+public enum StudentExportFormat {
+    NDJSON("application/x-ndjson"),
+    CSV("text/csv");
+
+    private final String mediaType;
+
+    StudentExportFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String mediaType() {
+        return mediaType;
+    }
+}
@@ -0,0 +1,7 @@
+package ru.hogwarts.school.model.dto;
+
+import java.util.List;
+
+public record StudentImportReport(long rows, long inserted, long updated, long rejected,
+                                  List<StudentImportError> errors) {
+}
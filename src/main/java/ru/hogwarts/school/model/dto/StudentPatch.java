@@ -0,0 +1,7 @@
+package ru.hogwarts.school.model.dto;
+
+/**
+ * Partial student update: {@code null} fields are left unchanged.
+ */
+public record StudentPatch(String name, Integer age, Long facultyId) {
+}
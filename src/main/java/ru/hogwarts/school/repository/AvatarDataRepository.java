@@ -0,0 +1,25 @@
+package ru.hogwarts.school.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.hogwarts.school.model.AvatarData;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AvatarDataRepository extends JpaRepository<AvatarData, Long> {
+
+    @Query("""
+                SELECT d FROM AvatarData d
+                JOIN FETCH d.avatar a
+                WHERE a.student.id = :studentId
+            """)
+    Optional<AvatarData> findByStudentId(@Param("studentId") Long studentId);
+
+    @Query(value = "SELECT lo_unlink(data) FROM avatar_data WHERE avatar_id = :avatarId AND data IS NOT NULL",
+            nativeQuery = true)
+    List<Integer> unlinkData(@Param("avatarId") Long avatarId);
+}
@@ -0,0 +1,33 @@
+package ru.hogwarts.school.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.hogwarts.school.model.AvatarFile;
+
+import java.util.Optional;
+
+@Repository
+public interface AvatarFileRepository extends JpaRepository<AvatarFile, String> {
+
+    @Modifying
+    @Query("UPDATE AvatarFile f SET f.refs = f.refs + 1 WHERE f.checksum = :checksum")
+    int increment(@Param("checksum") String checksum);
+
+    @Modifying
+    @Query("INSERT INTO AvatarFile (checksum, refs) VALUES (:checksum, 1)")
+    int insertFirst(@Param("checksum") String checksum);
+
+    @Modifying
+    @Query("UPDATE AvatarFile f SET f.refs = f.refs - 1 WHERE f.checksum = :checksum")
+    int decrement(@Param("checksum") String checksum);
+
+    @Query("SELECT f.refs FROM AvatarFile f WHERE f.checksum = :checksum")
+    Optional<Long> findRefs(@Param("checksum") String checksum);
+
+    @Modifying
+    @Query("DELETE FROM AvatarFile f WHERE f.checksum = :checksum AND f.refs <= 0")
+    int deleteUnreferenced(@Param("checksum") String checksum);
+}
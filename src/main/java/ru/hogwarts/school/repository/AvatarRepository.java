@@ -1,13 +1,54 @@
 package ru.hogwarts.school.repository;
 
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.hogwarts.school.model.Avatar;
+import ru.hogwarts.school.model.dto.AvatarInfo;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface AvatarRepository extends JpaRepository<Avatar, Long> {
 
     Optional<Avatar> findByStudentId(Long studentId);
+
+    @EntityGraph(attributePaths = "student")
+    List<Avatar> findAllBy(Pageable pageable);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Avatar a WHERE a.student.id = :studentId")
+    Optional<Avatar> findForUpdateByStudentId(@Param("studentId") Long studentId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Avatar a WHERE a.id = :id")
+    Optional<Avatar> findForUpdateById(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Avatar a WHERE a.student.id IN :studentIds ORDER BY a.id")
+    List<Avatar> findForUpdateByStudentIdIn(@Param("studentIds") Collection<Long> studentIds);
+
+    @Query("""
+                SELECT new ru.hogwarts.school.model.dto.AvatarInfo(a.id, a.student.id, a.fileSize, a.mediaType, a.checksum)
+                FROM Avatar a
+                WHERE a.id > :after
+                ORDER BY a.id
+            """)
+    List<AvatarInfo> findAvatarInfosAfter(@Param("after") long after, Limit limit);
+
+    @Query("""
+                SELECT a.id FROM Avatar a
+                WHERE (a.storage IS NULL OR a.storage = ru.hogwarts.school.model.AvatarStorage.LOB)
+                AND a.id > :after
+                ORDER BY a.id
+            """)
+    List<Long> findLegacyIdsAfter(@Param("after") long after, Limit limit);
 }
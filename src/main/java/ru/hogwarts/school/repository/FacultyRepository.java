@@ -1,21 +1,60 @@
 package ru.hogwarts.school.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.hogwarts.school.config.EntityCacheConfiguration;
 import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.service.events.FacultySnapshot;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface FacultyRepository extends JpaRepository<Faculty, Long> {
+    @EntityGraph(attributePaths = "students")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = EntityCacheConfiguration.FACULTY_QUERY_REGION)
+    })
+    Optional<Faculty> findWithStudentsById(Long id);
+
+    @EntityGraph(attributePaths = "students")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = EntityCacheConfiguration.FACULTY_QUERY_REGION)
+    })
+    @Query("SELECT f FROM Faculty f JOIN f.students s WHERE s.id = :studentId")
+    Optional<Faculty> findByStudentId(@Param("studentId") Long studentId);
+
+    @EntityGraph(attributePaths = "students")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = EntityCacheConfiguration.FACULTY_QUERY_REGION)
+    })
     Collection<Faculty> findByColor(String color);
 
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = EntityCacheConfiguration.FACULTY_QUERY_REGION)
+    })
+    @EntityGraph(attributePaths = "students")
     @Query("""
                 SELECT f FROM Faculty f
                 WHERE LOWER(f.name)  = LOWER(:value)
                    OR LOWER(f.color) = LOWER(:value)
             """)
     Collection<Faculty> findByNameOrColorIgnoreCase(@Param("value") String value);
+
+    @Query("SELECT new ru.hogwarts.school.service.events.FacultySnapshot(f.id, f.name, f.color) FROM Faculty f")
+    List<FacultySnapshot> findAllSnapshots();
+
+    @Query("SELECT new ru.hogwarts.school.service.events.FacultySnapshot(f.id, f.name, f.color) FROM Faculty f WHERE f.id IN :ids")
+    List<FacultySnapshot> findSnapshotsByIdIn(@Param("ids") Collection<Long> ids);
 }
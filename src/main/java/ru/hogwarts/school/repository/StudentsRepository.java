@@ -1,11 +1,25 @@
 package ru.hogwarts.school.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.model.dto.FacultyRosterEntry;
+import ru.hogwarts.school.model.dto.FacultyStatisticsRow;
+import ru.hogwarts.school.model.dto.StudentAge;
+import ru.hogwarts.school.model.dto.StudentAgeCount;
+import ru.hogwarts.school.model.dto.StudentExportRow;
+import ru.hogwarts.school.model.dto.StudentTotals;
+import ru.hogwarts.school.service.events.StudentSnapshot;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface StudentsRepository extends JpaRepository<Student, Long> {
@@ -13,11 +27,153 @@ public interface StudentsRepository extends JpaRepository<Student, Long> {
 
     Collection<Student> findByAgeBetween(int minAge, int maxAge);
 
-    @Query(value = "SELECT COUNT(*) FROM student", nativeQuery = true)
-    Long findStudentsQuantity();
-    @Query(value = "SELECT AVG(age) FROM student", nativeQuery = true)
-    Double findStudentsAverageAge();
+    @Query("SELECT new ru.hogwarts.school.model.dto.StudentTotals(COUNT(s), COALESCE(SUM(s.age), 0L)) FROM Student s")
+    StudentTotals findStudentTotals();
 
-    @Query(value = "SELECT * FROM student ORDER BY id DESC LIMIT 5", nativeQuery = true)
-    Collection<Student> findLastFiveStudents();
+    @Query("SELECT new ru.hogwarts.school.model.dto.StudentAgeCount(s.age, COUNT(s)) FROM Student s GROUP BY s.age ORDER BY s.age")
+    List<StudentAgeCount> findAgeHistogram();
+
+    @Query("""
+                SELECT new ru.hogwarts.school.service.events.StudentSnapshot(s.id, s.name, s.age, f.id, s.version)
+                FROM Student s
+                LEFT JOIN s.faculty f
+                ORDER BY s.id DESC
+            """)
+    List<StudentSnapshot> findLatestSnapshots(Limit limit);
+
+    List<Student> findByNameIn(Collection<String> names);
+
+    @Query("""
+                SELECT new ru.hogwarts.school.service.events.StudentSnapshot(s.id, s.name, s.age, f.id, s.version)
+                FROM Student s
+                LEFT JOIN s.faculty f
+                WHERE LOWER(s.name) LIKE :pattern ESCAPE '\\'
+                ORDER BY CASE
+                             WHEN LOWER(s.name) = :query THEN 0
+                             WHEN LOWER(s.name) LIKE :prefix ESCAPE '\\' THEN 1
+                             ELSE 2
+                         END,
+                         LOWER(s.name), s.id
+            """)
+    List<StudentSnapshot> searchSnapshotsByName(@Param("query") String query,
+                                                @Param("prefix") String prefix,
+                                                @Param("pattern") String pattern,
+                                                Limit limit);
+
+    @Query("""
+                SELECT new ru.hogwarts.school.model.dto.FacultyRosterEntry(s.id, s.name, s.age)
+                FROM Student s
+                WHERE s.faculty.id = :facultyId
+                  AND s.age BETWEEN :minAge AND :maxAge
+                  AND s.id > :afterId
+                ORDER BY s.id
+            """)
+    List<FacultyRosterEntry> findRosterById(@Param("facultyId") Long facultyId,
+                                            @Param("minAge") int minAge,
+                                            @Param("maxAge") int maxAge,
+                                            @Param("afterId") long afterId,
+                                            Limit limit);
+
+    @Query("""
+                SELECT new ru.hogwarts.school.model.dto.FacultyRosterEntry(s.id, s.name, s.age)
+                FROM Student s
+                WHERE s.faculty.id = :facultyId
+                  AND s.age BETWEEN :minAge AND :maxAge
+                  AND (s.age, s.id) > (:afterAge, :afterId)
+                ORDER BY s.age, s.id
+            """)
+    List<FacultyRosterEntry> findRosterByAge(@Param("facultyId") Long facultyId,
+                                             @Param("minAge") int minAge,
+                                             @Param("maxAge") int maxAge,
+                                             @Param("afterAge") int afterAge,
+                                             @Param("afterId") long afterId,
+                                             Limit limit);
+
+    @Query("""
+                SELECT new ru.hogwarts.school.model.dto.FacultyRosterEntry(s.id, s.name, s.age)
+                FROM Student s
+                WHERE s.faculty.id = :facultyId
+                  AND s.age BETWEEN :minAge AND :maxAge
+                  AND (s.name, s.id) > (:afterName, :afterId)
+                ORDER BY s.name, s.id
+            """)
+    List<FacultyRosterEntry> findRosterByName(@Param("facultyId") Long facultyId,
+                                              @Param("minAge") int minAge,
+                                              @Param("maxAge") int maxAge,
+                                              @Param("afterName") String afterName,
+                                              @Param("afterId") long afterId,
+                                              Limit limit);
+
+    @Query("""
+                SELECT new ru.hogwarts.school.model.dto.FacultyRosterEntry(s.id, s.name, s.age)
+                FROM Student s
+                WHERE s.faculty.id = :facultyId
+                  AND s.age BETWEEN :minAge AND :maxAge
+                  AND s.name IS NULL
+                  AND s.id > :afterId
+                ORDER BY s.id
+            """)
+    List<FacultyRosterEntry> findUnnamedRoster(@Param("facultyId") Long facultyId,
+                                               @Param("minAge") int minAge,
+                                               @Param("maxAge") int maxAge,
+                                               @Param("afterId") long afterId,
+                                               Limit limit);
+
+    long countByFacultyIdAndAgeBetween(Long facultyId, int minAge, int maxAge);
+
+    @Query("""
+                SELECT new ru.hogwarts.school.model.dto.FacultyStatisticsRow(
+                    s.faculty.id, COUNT(s), AVG(s.age), MIN(s.age), MAX(s.age), COUNT(a))
+                FROM Student s
+                LEFT JOIN Avatar a ON a.student = s
+                WHERE s.faculty.id IN :facultyIds
+                GROUP BY s.faculty.id
+            """)
+    List<FacultyStatisticsRow> findFacultyStatistics(@Param("facultyIds") Collection<Long> facultyIds);
+
+    @Query("""
+                SELECT new ru.hogwarts.school.model.dto.FacultyStatisticsRow(
+                    s.faculty.id, COUNT(s), AVG(s.age), MIN(s.age), MAX(s.age), COUNT(a))
+                FROM Student s
+                LEFT JOIN Avatar a ON a.student = s
+                WHERE s.faculty IS NOT NULL
+                GROUP BY s.faculty.id
+            """)
+    List<FacultyStatisticsRow> findAllFacultyStatistics();
+
+    @Query("SELECT DISTINCT s.faculty.id FROM Student s WHERE s.id IN :ids AND s.faculty IS NOT NULL")
+    List<Long> findFacultyIdsOf(@Param("ids") Collection<Long> studentIds);
+
+    @Query("SELECT s.id FROM Student s WHERE s.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+                SELECT new ru.hogwarts.school.model.dto.StudentExportRow(s.id, s.name, s.age, f.id, f.name)
+                FROM Student s
+                LEFT JOIN s.faculty f
+                ORDER BY s.id
+            """)
+    Stream<StudentExportRow> streamExportRows();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+                SELECT new ru.hogwarts.school.service.events.StudentSnapshot(s.id, s.name, s.age, f.id, s.version)
+                FROM Student s
+                LEFT JOIN s.faculty f
+            """)
+    Stream<StudentSnapshot> streamSnapshots();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new ru.hogwarts.school.model.dto.StudentAge(s.id, s.age) FROM Student s")
+    Stream<StudentAge> streamAges();
 }
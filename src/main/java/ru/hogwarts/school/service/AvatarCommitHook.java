@@ -0,0 +1,102 @@
+package ru.hogwarts.school.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.hogwarts.school.interfaces.AvatarStore;
+import ru.hogwarts.school.model.Avatar;
+import ru.hogwarts.school.model.AvatarStorage;
+import ru.hogwarts.school.service.cache.AvatarCache;
+import ru.hogwarts.school.service.storage.AvatarContent;
+import ru.hogwarts.school.service.storage.AvatarVariantGenerator;
+
+import java.io.IOException;
+
+/**
+ * Work tied to the outcome of an avatar write: dropping the cached payload, rendering
+ * variants and releasing the file reference a replaced avatar held once the new one is
+ * committed, or the reference taken for new content if the write rolls back.
+ */
+@Slf4j
+@Component
+public class AvatarCommitHook {
+
+    @Autowired
+    private AvatarStore avatarStore;
+
+    @Autowired
+    private AvatarCache avatarCache;
+
+    @Autowired
+    private AvatarVariantGenerator variantGenerator;
+
+    /**
+     * The checksum of the stored file the avatar holds a reference on, or {@code null} for
+     * inline content and avatars without content.
+     */
+    public static String fileReference(Avatar avatar) {
+        return avatar.getStorage() != AvatarStorage.INLINE ? avatar.getChecksum() : null;
+    }
+
+    public void afterReplace(Long studentId, String releasedChecksum, Avatar avatar) {
+        String checksum = avatar.getChecksum();
+        String mediaType = avatar.getMediaType();
+        boolean inline = avatar.getStorage() == AvatarStorage.INLINE;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                avatarCache.invalidate(studentId);
+                if (!inline) {
+                    variantGenerator.schedule(checksum, mediaType);
+                }
+                if (releasedChecksum != null) {
+                    release(releasedChecksum);
+                }
+            }
+        });
+    }
+
+    /**
+     * Gives back the reference {@link AvatarStore#store} took for the content if the current
+     * transaction rolls back.
+     */
+    public void releaseOnRollback(AvatarContent content) {
+        if (content.inline()) {
+            return;
+        }
+        String checksum = content.fingerprint().checksum();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    release(checksum);
+                }
+            }
+        });
+    }
+
+    public void releaseAfterCommit(String checksum) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                release(checksum);
+            }
+        });
+    }
+
+    public void release(AvatarContent content) {
+        if (!content.inline()) {
+            release(content.fingerprint().checksum());
+        }
+    }
+
+    private void release(String checksum) {
+        try {
+            avatarStore.release(checksum);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Unable to release avatar file {}", checksum, e);
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package ru.hogwarts.school.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+import ru.hogwarts.school.interfaces.AvatarImportService;
+import ru.hogwarts.school.model.Avatar;
+import ru.hogwarts.school.model.AvatarData;
+import ru.hogwarts.school.model.dto.AvatarImportState;
+import ru.hogwarts.school.model.dto.AvatarImportStatus;
+import ru.hogwarts.school.repository.AvatarDataRepository;
+import ru.hogwarts.school.repository.AvatarRepository;
+import ru.hogwarts.school.repository.StudentsRepository;
+import ru.hogwarts.school.service.storage.AvatarContent;
+import ru.hogwarts.school.service.storage.AvatarImportJob;
+import ru.hogwarts.school.service.storage.AvatarLargeObjects;
+import ru.hogwarts.school.service.storage.AvatarTiering;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Imports avatars from a ZIP archive whose entries are named {@code <studentId>.<ext>}.
+ * The upload is spooled to disk and read entry by entry; entries are hashed and written
+ * to their storage tier on a fixed worker pool, with a semaphore bounding how many
+ * entries are held in memory at once. Stored entries are persisted in batches, one
+ * transaction and one round of JDBC batched statements per batch.
+ */
+@Slf4j
+@Service
+public class AvatarImportServiceImpl implements AvatarImportService {
+
+    private static final Pattern ENTRY_NAME = Pattern.compile("(?:.*/)?(\\d+)(?:\\.[A-Za-z0-9]+)?");
+
+    @Autowired
+    private AvatarRepository avatarRepository;
+
+    @Autowired
+    private AvatarDataRepository avatarDataRepository;
+
+    @Autowired
+    private StudentsRepository studentsRepository;
+
+    @Autowired
+    private AvatarTiering avatarTiering;
+
+    @Autowired
+    private AvatarCommitHook avatarCommitHook;
+
+    @Autowired
+    private AvatarLargeObjects avatarLargeObjects;
+
+    private final TransactionTemplate transaction;
+    private final Path spoolDir;
+    private final int concurrency;
+    private final int batchSize;
+    private final int maxEntryBytes;
+    private final int maxErrors;
+    private final Duration retention;
+    private final ThreadPoolExecutor jobs;
+    private final ExecutorService workers;
+    private final Map<UUID, AvatarImportJob> registry = new ConcurrentHashMap<>();
+
+    public AvatarImportServiceImpl(PlatformTransactionManager transactionManager,
+                                   @Value("${path.to.avatars.folder}") String avatarsDir,
+                                   @Value("${avatar.import.concurrency:0}") int concurrency,
+                                   @Value("${avatar.import.batch-size:50}") int batchSize,
+                                   @Value("${avatar.import.max-entry-bytes:5242880}") int maxEntryBytes,
+                                   @Value("${avatar.import.max-errors:1000}") int maxErrors,
+                                   @Value("${avatar.import.queue-capacity:4}") int queueCapacity,
+                                   @Value("${avatar.import.retention:PT1H}") Duration retention) {
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.spoolDir = Path.of(avatarsDir).resolve(".tmp");
+        this.concurrency = concurrency > 0 ? concurrency : Runtime.getRuntime().availableProcessors();
+        this.batchSize = batchSize;
+        this.maxEntryBytes = maxEntryBytes;
+        this.maxErrors = maxErrors;
+        this.retention = retention;
+        this.jobs = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("avatar-import-job-"));
+        this.workers = Executors.newFixedThreadPool(this.concurrency,
+                new CustomizableThreadFactory("avatar-import-"));
+    }
+
+    @Override
+    public AvatarImportStatus startImport(MultipartFile archive) throws IOException {
+        evictFinishedJobs();
+        Path spool = Files.createTempFile(Files.createDirectories(spoolDir), "import-", ".zip");
+        archive.transferTo(spool);
+        AvatarImportJob job = new AvatarImportJob(maxErrors);
+        registry.put(job.id(), job);
+        try {
+            jobs.execute(() -> run(job, spool));
+        } catch (RejectedExecutionException e) {
+            registry.remove(job.id());
+            Files.deleteIfExists(spool);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many avatar imports in progress");
+        }
+        return job.status();
+    }
+
+    @Override
+    public Optional<AvatarImportStatus> findImport(UUID jobId) {
+        return Optional.ofNullable(registry.get(jobId)).map(AvatarImportJob::status);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobs.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    private void run(AvatarImportJob job, Path spool) {
+        job.start();
+        try (ZipInputStream zip = new ZipInputStream(new BufferedInputStream(Files.newInputStream(spool)))) {
+            importEntries(job, zip);
+            job.finish(AvatarImportState.COMPLETED);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Avatar import {} failed", job.id(), e);
+            job.fail(null, e.getMessage());
+            job.finish(AvatarImportState.FAILED);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.finish(AvatarImportState.FAILED);
+        } finally {
+            try {
+                Files.deleteIfExists(spool);
+            } catch (IOException e) {
+                log.warn("Unable to delete import spool {}", spool, e);
+            }
+        }
+    }
+
+    private void importEntries(AvatarImportJob job, ZipInputStream zip) throws IOException, InterruptedException {
+        Semaphore inFlight = new Semaphore(concurrency * 2);
+        BlockingQueue<ImportedEntry> stored = new LinkedBlockingQueue<>();
+        try {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (entry.isDirectory()) {
+                    continue;
+                }
+                job.entryRead();
+                String name = entry.getName();
+                Matcher matcher = ENTRY_NAME.matcher(name);
+                if (!matcher.matches()) {
+                    job.fail(name, "Entry name must be <studentId>.<extension>");
+                    continue;
+                }
+                Long studentId;
+                try {
+                    studentId = Long.valueOf(matcher.group(1));
+                } catch (NumberFormatException e) {
+                    job.fail(name, "Student id " + matcher.group(1) + " is out of range");
+                    continue;
+                }
+                byte[] content = zip.readNBytes(maxEntryBytes + 1);
+                if (content.length > maxEntryBytes) {
+                    job.fail(name, "Entry is larger than " + maxEntryBytes + " bytes");
+                    continue;
+                }
+                inFlight.acquire();
+                workers.execute(() -> {
+                    try {
+                        stored.add(new ImportedEntry(name, studentId, avatarTiering.store(new ByteArrayInputStream(content), content.length)));
+                    } catch (IOException | RuntimeException e) {
+                        job.fail(name, e.getMessage());
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+                if (stored.size() >= batchSize) {
+                    persistBatch(job, drain(stored, batchSize));
+                }
+            }
+        } finally {
+            inFlight.acquire(concurrency * 2);
+        }
+        while (!stored.isEmpty()) {
+            persistBatch(job, drain(stored, batchSize));
+        }
+    }
+
+    private static List<ImportedEntry> drain(BlockingQueue<ImportedEntry> queue, int max) {
+        List<ImportedEntry> batch = new ArrayList<>(max);
+        queue.drainTo(batch, max);
+        return batch;
+    }
+
+    private void persistBatch(AvatarImportJob job, List<ImportedEntry> batch) {
+        Map<Long, ImportedEntry> byStudent = new LinkedHashMap<>();
+        for (ImportedEntry entry : batch) {
+            ImportedEntry replaced = byStudent.put(entry.studentId(), entry);
+            if (replaced != null) {
+                avatarCommitHook.release(replaced.content());
+                job.fail(replaced.name(), "Superseded by " + entry.name());
+            }
+        }
+        try {
+            Integer imported = transaction.execute(status -> persist(job, byStudent));
+            job.imported(imported);
+        } catch (RuntimeException e) {
+            log.warn("Unable to persist avatar import batch", e);
+            byStudent.values().forEach(entry -> job.fail(entry.name(), e.getMessage()));
+        }
+    }
+
+    private int persist(AvatarImportJob job, Map<Long, ImportedEntry> byStudent) {
+        byStudent.values().forEach(entry -> avatarCommitHook.releaseOnRollback(entry.content()));
+        Set<Long> knownStudents = new HashSet<>(studentsRepository.findExistingIds(byStudent.keySet()));
+        Map<Long, Avatar> existing = avatarRepository.findForUpdateByStudentIdIn(byStudent.keySet()).stream()
+                .collect(Collectors.toMap(avatar -> avatar.getStudent().getId(), Function.identity()));
+        Map<Long, AvatarData> existingData = avatarDataRepository.findAllById(
+                        existing.values().stream().map(Avatar::getId).toList()).stream()
+                .collect(Collectors.toMap(AvatarData::getId, Function.identity()));
+
+        List<Avatar> avatars = new ArrayList<>(byStudent.size());
+        List<String> previousChecksums = new ArrayList<>(byStudent.size());
+        List<AvatarData> inlineData = new ArrayList<>();
+        List<AvatarData> staleData = new ArrayList<>();
+        for (ImportedEntry entry : byStudent.values()) {
+            if (!knownStudents.contains(entry.studentId())) {
+                job.fail(entry.name(), "Student " + entry.studentId() + " not found");
+                if (!entry.content().inline()) {
+                    avatarCommitHook.releaseAfterCommit(entry.content().fingerprint().checksum());
+                }
+                continue;
+            }
+            Avatar avatar = existing.getOrDefault(entry.studentId(), new Avatar());
+            previousChecksums.add(AvatarCommitHook.fileReference(avatar));
+            avatar.setStudent(studentsRepository.getReferenceById(entry.studentId()));
+            avatarTiering.apply(avatar, entry.content(), URLConnection.guessContentTypeFromName(entry.name()));
+            avatars.add(avatar);
+            AvatarData avatarData = avatar.getId() != null ? existingData.get(avatar.getId()) : null;
+            if (avatarData != null && avatarData.getData() != null) {
+                avatarLargeObjects.unlink(avatar.getId());
+            }
+            if (entry.content().inline()) {
+                avatarData = avatarData != null ? avatarData : AvatarData.builder().avatar(avatar).build();
+                avatarData.setInlineData(entry.content().inlineData());
+                avatarData.setData(null);
+                inlineData.add(avatarData);
+            } else if (avatarData != null) {
+                staleData.add(avatarData);
+            }
+        }
+        avatarRepository.saveAll(avatars);
+        avatarDataRepository.saveAll(inlineData);
+        avatarDataRepository.deleteAll(staleData);
+        avatarDataRepository.flush();
+
+        for (int i = 0; i < avatars.size(); i++) {
+            Avatar avatar = avatars.get(i);
+            avatarCommitHook.afterReplace(avatar.getStudent().getId(), previousChecksums.get(i), avatar);
+        }
+        return avatars.size();
+    }
+
+    private void evictFinishedJobs() {
+        Instant threshold = Instant.now().minus(retention);
+        registry.values().removeIf(job -> job.finishedBefore(threshold));
+    }
+
+    private record ImportedEntry(String name, Long studentId, AvatarContent content) {
+    }
+}
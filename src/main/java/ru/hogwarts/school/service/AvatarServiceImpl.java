@@ -2,65 +2,108 @@ package ru.hogwarts.school.service;
 
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 import ru.hogwarts.school.exceptions.PaginationException;
 import ru.hogwarts.school.interfaces.AvatarService;
 import ru.hogwarts.school.model.Avatar;
+import ru.hogwarts.school.model.AvatarData;
 import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.model.dto.AvatarCacheStatistics;
+import ru.hogwarts.school.model.dto.AvatarInfo;
+import ru.hogwarts.school.model.dto.AvatarPage;
+import ru.hogwarts.school.repository.AvatarDataRepository;
 import ru.hogwarts.school.repository.AvatarRepository;
 import ru.hogwarts.school.repository.StudentsRepository;
+import ru.hogwarts.school.service.cache.AvatarCache;
+import ru.hogwarts.school.service.cache.CachedAvatar;
+import ru.hogwarts.school.service.storage.AvatarContent;
+import ru.hogwarts.school.service.storage.AvatarLargeObjects;
+import ru.hogwarts.school.service.storage.AvatarTiering;
+import ru.hogwarts.school.service.storage.AvatarVariant;
+import ru.hogwarts.school.service.storage.AvatarVariantGenerator;
 
 import java.io.*;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.sql.Blob;
+import java.sql.SQLException;
 import java.util.List;
-
-import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import java.util.Optional;
 
 @Service
 @Transactional
 public class AvatarServiceImpl implements AvatarService {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int STREAM_BUFFER_SIZE = 8192;
+
     @Autowired
     private AvatarRepository avatarRepository;
 
+    @Autowired
+    private AvatarDataRepository avatarDataRepository;
+
     @Autowired
     private StudentsRepository studentsRepository;
 
-    @Value("${path.to.avatars.folder}")
-    private String avatarsDir;
+    @Autowired
+    private AvatarTiering avatarTiering;
+
+    @Autowired
+    private AvatarCache avatarCache;
+
+    @Autowired
+    private AvatarVariantGenerator variantGenerator;
+
+    @Autowired
+    private AvatarCommitHook avatarCommitHook;
+
+    @Autowired
+    private AvatarLargeObjects avatarLargeObjects;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    public AvatarServiceImpl(PlatformTransactionManager transactionManager) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
 
     public void uploadAvatar(Long studentId, MultipartFile avatarFile) throws IOException {
         Student student = studentsRepository.getById(studentId);
-        Path filePath = Path.of(avatarsDir, student + "." + getExtensions(avatarFile.getOriginalFilename()));
-        Files.createDirectories(filePath.getParent());
-        Files.deleteIfExists(filePath);
-        try (
-                InputStream is = avatarFile.getInputStream();
-                OutputStream os = Files.newOutputStream(filePath, CREATE_NEW);
-                BufferedInputStream bis = new BufferedInputStream(is, 1024);
-                BufferedOutputStream bos = new BufferedOutputStream(os, 1024);
-        ) {
-            bis.transferTo(bos);
+        AvatarContent content;
+        try (InputStream is = avatarFile.getInputStream()) {
+            content = avatarTiering.store(is, avatarFile.getSize());
         }
-        Avatar avatar = findAvatar(studentId);
+        avatarCommitHook.releaseOnRollback(content);
+        Avatar avatar = avatarRepository.findForUpdateByStudentId(studentId).orElse(new Avatar());
+        String previousChecksum = AvatarCommitHook.fileReference(avatar);
         avatar.setStudent(student);
-        avatar.setFilePath(filePath.toString());
-        avatar.setFileSize(avatarFile.getSize());
-        avatar.setMediaType(avatarFile.getContentType());
-        avatar.setData(avatarFile.getBytes());
-        avatarRepository.save(avatar);
-    }
-
-    private String getExtensions(String fileName) {
-        return fileName.substring(fileName.lastIndexOf(".") + 1);
+        avatarTiering.apply(avatar, content, avatarFile.getContentType());
+        avatarRepository.saveAndFlush(avatar);
+        Optional<AvatarData> avatarData = avatarDataRepository.findById(avatar.getId());
+        if (avatarData.map(AvatarData::getData).isPresent()) {
+            avatarLargeObjects.unlink(avatar.getId());
+        }
+        if (content.inline()) {
+            AvatarData inline = avatarData.orElseGet(() -> AvatarData.builder().avatar(avatar).build());
+            inline.setInlineData(content.inlineData());
+            inline.setData(null);
+            avatarDataRepository.saveAndFlush(inline);
+        } else {
+            avatarData.ifPresent(avatarDataRepository::delete);
+        }
+        avatarCommitHook.afterReplace(studentId, previousChecksum, avatar);
     }
 
     @Override
@@ -68,20 +111,126 @@ public class AvatarServiceImpl implements AvatarService {
         return avatarRepository.findByStudentId(id).orElse(new Avatar());
     }
 
+    @Override
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    public boolean writeAvatarData(Long studentId, AvatarDataWriter writer) throws IOException {
+        Optional<CachedAvatar> cached = avatarCache.get(studentId);
+        if (cached.isPresent()) {
+            write(cached.get(), writer);
+            return true;
+        }
+        long generation = avatarCache.generation();
+        try {
+            return Boolean.TRUE.equals(readOnlyTransaction.execute(status -> avatarDataRepository.findByStudentId(studentId)
+                    .filter(avatarData -> avatarData.getInlineData() != null || avatarData.getData() != null)
+                    .map(avatarData -> streamFromDatabase(studentId, generation, avatarData, writer))
+                    .orElse(false)));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void write(CachedAvatar avatar, AvatarDataWriter writer) throws IOException {
+        OutputStream os = writer.open(avatar.mediaType(), avatar.length(), avatar.checksum());
+        if (os == null) {
+            return;
+        }
+        ByteBuffer content = avatar.content();
+        WritableByteChannel channel = Channels.newChannel(os);
+        while (content.hasRemaining()) {
+            channel.write(content);
+        }
+    }
+
+    /**
+     * Writes inline content directly. Legacy large objects are copied to the writer through a
+     * small fixed buffer; payloads that fit into the cache are collected on the way into a
+     * direct buffer the cache hands out and then keeps, larger ones are not collected at all.
+     */
+    private boolean streamFromDatabase(Long studentId, long generation, AvatarData avatarData, AvatarDataWriter writer) {
+        Avatar avatar = avatarData.getAvatar();
+        if (avatarData.getInlineData() != null) {
+            CachedAvatar inline = avatarCache.put(studentId, generation, avatar.getChecksum(), avatar.getMediaType(),
+                            ByteBuffer.wrap(avatarData.getInlineData()))
+                    .orElseGet(() -> new CachedAvatar(avatar.getChecksum(), avatar.getMediaType(),
+                            ByteBuffer.wrap(avatarData.getInlineData())));
+            try {
+                write(inline, writer);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return true;
+        }
+        Blob data = avatarData.getData();
+        try {
+            long length = avatar.getFileSize() > 0 ? avatar.getFileSize() : data.length();
+            OutputStream os = writer.open(avatar.getMediaType(), length, avatar.getChecksum());
+            if (os == null) {
+                return true;
+            }
+            ByteBuffer cacheCopy = avatarCache.allocate(length);
+            byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+            try (InputStream in = data.getBinaryStream()) {
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    os.write(buffer, 0, read);
+                    if (cacheCopy != null) {
+                        cacheCopy = cacheCopy.remaining() >= read ? cacheCopy.put(buffer, 0, read) : null;
+                    }
+                }
+            }
+            if (cacheCopy != null && !cacheCopy.hasRemaining()) {
+                avatarCache.adopt(studentId, generation, avatar.getChecksum(), avatar.getMediaType(), cacheCopy.flip());
+            }
+            return true;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Unable to read avatar data", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public Optional<AvatarVariant> findVariant(Long studentId, int size) {
+        return avatarCache.get(studentId)
+                .map(cached -> variantGenerator.findVariant(cached.checksum(), cached.mediaType(), size))
+                .orElseGet(() -> avatarRepository.findByStudentId(studentId)
+                        .filter(avatar -> avatar.getChecksum() != null)
+                        .flatMap(avatar -> variantGenerator.findVariant(avatar.getChecksum(), avatar.getMediaType(), size)));
+    }
+
+    @Override
+    public AvatarCacheStatistics getCacheStatistics() {
+        return avatarCache.statistics();
+    }
+
     @Override
     public Page<Avatar> findAvatarsPageable(Integer pageNumber, Integer pageSize) {
         checkPaginationParameters(pageNumber, pageSize);
-        if (pageNumber == null) {
-            List<Avatar> all = avatarRepository.findAll();
-            return new PageImpl<>(
-                    all,
-                    Pageable.unpaged(),
-                    all.size()
+        PageRequest pageRequest = pageNumber == null
+                ? PageRequest.of(0, DEFAULT_PAGE_SIZE, Sort.by("id"))
+                : PageRequest.of(pageNumber, pageSize, Sort.by("id"));
+        return PageableExecutionUtils.getPage(avatarRepository.findAllBy(pageRequest), pageRequest,
+                avatarRepository::count);
+    }
+
+    @Override
+    public AvatarPage findAvatarsAfter(Long after, Integer pageSize, boolean withTotal) {
+        int size = pageSize == null ? DEFAULT_PAGE_SIZE : pageSize;
+        if (size <= 0 || size > MAX_PAGE_SIZE) {
+            throw new PaginationException(
+                    "pageSize must be between 1 and " + MAX_PAGE_SIZE,
+                    HttpStatus.BAD_REQUEST
             );
-        } else {
-            PageRequest pageRequest = PageRequest.of(pageNumber, pageSize);
-            return avatarRepository.findAll(pageRequest);
         }
+        List<AvatarInfo> items = avatarRepository.findAvatarInfosAfter(after == null ? 0 : after, Limit.of(size + 1));
+        Long nextCursor = null;
+        if (items.size() > size) {
+            items = items.subList(0, size);
+            nextCursor = items.get(size - 1).id();
+        }
+        Long total = withTotal ? avatarRepository.count() : null;
+        return new AvatarPage(items, nextCursor, total);
     }
 
     void checkPaginationParameters(Integer pageNumber, Integer pageSize) {
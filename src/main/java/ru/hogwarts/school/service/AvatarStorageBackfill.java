@@ -0,0 +1,131 @@
+package ru.hogwarts.school.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.hogwarts.school.model.Avatar;
+import ru.hogwarts.school.model.AvatarData;
+import ru.hogwarts.school.model.AvatarStorage;
+import ru.hogwarts.school.repository.AvatarDataRepository;
+import ru.hogwarts.school.repository.AvatarRepository;
+import ru.hogwarts.school.service.storage.AvatarContent;
+import ru.hogwarts.school.service.storage.AvatarLargeObjects;
+import ru.hogwarts.school.service.storage.AvatarTiering;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Moves avatars still kept as large objects into their size tier: small ones into
+ * {@code inline_data}, large ones into the file store with the database copy dropped.
+ * Rows are migrated one transaction each, walking the legacy ids in keyset batches, so
+ * the job can be interrupted and resumed at any point. Each row is locked while it moves and
+ * skipped if an upload replaced it in the meantime; the old large object is unlinked in the
+ * same transaction.
+ */
+@Slf4j
+@Component
+public class AvatarStorageBackfill {
+
+    @Autowired
+    private AvatarRepository avatarRepository;
+
+    @Autowired
+    private AvatarDataRepository avatarDataRepository;
+
+    @Autowired
+    private AvatarTiering avatarTiering;
+
+    @Autowired
+    private AvatarCommitHook avatarCommitHook;
+
+    @Autowired
+    private AvatarLargeObjects avatarLargeObjects;
+
+    private final TransactionTemplate transaction;
+    private final boolean enabled;
+    private final int batchSize;
+
+    public AvatarStorageBackfill(PlatformTransactionManager transactionManager,
+                                 @Value("${avatar.storage.backfill.enabled:true}") boolean enabled,
+                                 @Value("${avatar.storage.backfill.batch-size:100}") int batchSize) {
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startOnReady() {
+        if (enabled) {
+            new CustomizableThreadFactory("avatar-backfill-").newThread(this::backfill).start();
+        }
+    }
+
+    public int backfill() {
+        int migrated = 0;
+        long after = 0;
+        List<Long> ids;
+        while (!(ids = avatarRepository.findLegacyIdsAfter(after, Limit.of(batchSize))).isEmpty()) {
+            for (Long id : ids) {
+                try {
+                    transaction.executeWithoutResult(status -> migrate(id));
+                    migrated++;
+                } catch (RuntimeException e) {
+                    log.warn("Unable to migrate avatar {} to tiered storage", id, e);
+                }
+            }
+            after = ids.get(ids.size() - 1);
+        }
+        if (migrated > 0) {
+            log.info("Migrated {} avatars to tiered storage", migrated);
+        }
+        return migrated;
+    }
+
+    private void migrate(Long id) {
+        Avatar avatar = avatarRepository.findForUpdateById(id).orElse(null);
+        if (avatar == null || (avatar.getStorage() != null && avatar.getStorage() != AvatarStorage.LOB)) {
+            return;
+        }
+        AvatarData avatarData = avatarDataRepository.findById(id).orElse(null);
+        String previousChecksum = AvatarCommitHook.fileReference(avatar);
+        if (avatarData == null || avatarData.getData() == null) {
+            avatar.setStorage(avatarData != null && avatarData.getInlineData() != null
+                    ? AvatarStorage.INLINE : AvatarStorage.FILE);
+            if (previousChecksum != null && avatar.getStorage() == AvatarStorage.INLINE) {
+                avatarCommitHook.releaseAfterCommit(previousChecksum);
+            }
+            return;
+        }
+        AvatarContent content;
+        try (InputStream in = avatarData.getData().getBinaryStream()) {
+            content = avatarTiering.store(in, avatarData.getData().length());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Unable to read avatar data", e);
+        }
+        avatarCommitHook.releaseOnRollback(content);
+        avatarTiering.apply(avatar, content, avatar.getMediaType());
+        avatarLargeObjects.unlink(id);
+        if (content.inline()) {
+            avatarData.setInlineData(content.inlineData());
+            avatarData.setData(null);
+        } else {
+            avatarDataRepository.delete(avatarData);
+        }
+        if (avatar.getStudent() != null) {
+            avatarCommitHook.afterReplace(avatar.getStudent().getId(), previousChecksum, avatar);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package ru.hogwarts.school.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+import ru.hogwarts.school.interfaces.EntityCacheService;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.model.dto.EntityCacheRegionStatistics;
+import ru.hogwarts.school.model.dto.EntityCacheStatistics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reports Hibernate's second-level and query cache statistics and evicts the regions that
+ * writes outside Hibernate leave stale. Writes through the entity manager keep the caches
+ * current on their own: entity regions are updated on flush, and cached query results are
+ * dropped once the update timestamp of a table they read moves past them.
+ */
+@Service
+public class EntityCacheServiceImpl implements EntityCacheService {
+
+    private final SessionFactory sessionFactory;
+
+    public EntityCacheServiceImpl(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    @Override
+    public EntityCacheStatistics getStatistics() {
+        Statistics statistics = sessionFactory.getStatistics();
+        List<EntityCacheRegionStatistics> regions = new ArrayList<>();
+        String[] regionNames = statistics.getSecondLevelCacheRegionNames();
+        Arrays.sort(regionNames);
+        for (String regionName : regionNames) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(regionName);
+            if (region != null) {
+                regions.add(new EntityCacheRegionStatistics(regionName, region.getHitCount(),
+                        region.getMissCount(), region.getPutCount(), region.getElementCountInMemory()));
+            }
+        }
+        return new EntityCacheStatistics(statistics.getEntityLoadCount(), statistics.getEntityFetchCount(),
+                statistics.getQueryExecutionCount(), statistics.getQueryCacheHitCount(),
+                statistics.getQueryCacheMissCount(), regions);
+    }
+
+    /**
+     * Drops cached students and every cached query result after a bulk write that went
+     * straight through JDBC, which Hibernate never saw.
+     */
+    @Override
+    public void evictStudents() {
+        sessionFactory.getCache().evict(Student.class);
+        sessionFactory.getCache().evictQueryRegions();
+    }
+}
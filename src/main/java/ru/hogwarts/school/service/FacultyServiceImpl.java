@@ -1,22 +1,55 @@
 package ru.hogwarts.school.service;
 
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 import ru.hogwarts.school.interfaces.FacultyService;
 import ru.hogwarts.school.model.Faculty;
 import ru.hogwarts.school.model.Student;
 import ru.hogwarts.school.model.dto.FacultyDto;
+import ru.hogwarts.school.model.dto.FacultyPatch;
+import ru.hogwarts.school.model.dto.FacultyRosterEntry;
+import ru.hogwarts.school.model.dto.FacultyRosterPage;
+import ru.hogwarts.school.model.dto.FacultyRosterSort;
+import ru.hogwarts.school.model.dto.FacultyStatistics;
+import ru.hogwarts.school.model.dto.MultiGetResponse;
 import ru.hogwarts.school.repository.FacultyRepository;
+import ru.hogwarts.school.repository.StudentsRepository;
+import ru.hogwarts.school.service.catalog.FacultyCatalogue;
+import ru.hogwarts.school.service.lookup.EntityMultiGet;
+import ru.hogwarts.school.service.stats.FacultyStatisticsView;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Service
 public class FacultyServiceImpl implements FacultyService {
 
+    private static final int DEFAULT_ROSTER_PAGE_SIZE = 50;
+    private static final int MAX_ROSTER_PAGE_SIZE = 1000;
+
     @Autowired
     private FacultyRepository facultyRepository;
 
+    @Autowired
+    private StudentsRepository studentsRepository;
+
+    @Autowired
+    private EntityMultiGet entityMultiGet;
+
+    @Autowired
+    private FacultyCatalogue facultyCatalogue;
+
+    @Autowired
+    private FacultyStatisticsView facultyStatisticsView;
+
     @Override
     public Faculty createFaculty(FacultyDto facultyDto) {
 
@@ -29,7 +62,12 @@ public class FacultyServiceImpl implements FacultyService {
 
     @Override
     public Optional<Faculty> getFaculty(Long id) {
-        return facultyRepository.findById(id);
+        return facultyRepository.findWithStudentsById(id);
+    }
+
+    @Override
+    public MultiGetResponse<Faculty> getFaculties(List<Long> ids) {
+        return entityMultiGet.findFaculties(ids);
     }
 
     @Override
@@ -50,23 +88,127 @@ public class FacultyServiceImpl implements FacultyService {
         }
     }
 
+    @Override
+    @Transactional
+    public Faculty patchFaculty(Long facultyId, FacultyPatch patch, Long expectedVersion) {
+        Faculty faculty = facultyRepository.findById(facultyId)
+                .orElseThrow(() -> new EntityNotFoundException("Faculty not found"));
+        VersionChecks.check(expectedVersion, faculty.getVersion());
+        if (patch.name() != null) {
+            faculty.setName(patch.name());
+        }
+        if (patch.color() != null) {
+            faculty.setColor(patch.color());
+        }
+        try {
+            facultyRepository.flush();
+        } catch (OptimisticLockingFailureException e) {
+            throw VersionChecks.conflict(expectedVersion);
+        }
+        return faculty;
+    }
+
     @Override
     public void deleteFaculty(Long id) {
         facultyRepository.deleteById(id);
     }
 
+    /**
+     * Matches are read through the query cache, backed by the lower-cased name and color
+     * indexes when a student write has invalidated it; the catalogue only answers the lookups
+     * it knows have no match, which would otherwise cost a query each time.
+     */
     @Override
     public Collection<Faculty> findByColor(String color) {
-        return facultyRepository.findByColor(color);
+        List<Long> ids = facultyCatalogue.findIdsByColor(color);
+        return ids != null && ids.isEmpty() ? List.of() : facultyRepository.findByColor(color);
     }
 
     @Override
     public Collection<Faculty> findByNameOrColorIgnoreCase(String value) {
-        return facultyRepository.findByNameOrColorIgnoreCase(value);
+        List<Long> ids = facultyCatalogue.findIdsByNameOrColorIgnoreCase(value);
+        return ids != null && ids.isEmpty() ? List.of() : facultyRepository.findByNameOrColorIgnoreCase(value);
     }
 
     @Override
     public Optional<Collection<Student>> findStudentsByFacultyId(Long facultyId) {
-        return facultyRepository.findById(facultyId).map(Faculty::getStudents);
+        return facultyRepository.findWithStudentsById(facultyId).map(Faculty::getStudents);
+    }
+
+    @Override
+    public List<FacultyStatistics> getStatistics() {
+        return facultyStatisticsView.all();
+    }
+
+    @Override
+    public Optional<FacultyStatistics> getStatistics(Long facultyId) {
+        return facultyStatisticsView.find(facultyId);
+    }
+
+    /**
+     * Reads one page of a faculty's students by keyset: each page continues after the sort
+     * key of the previous page's last student, so every page is an index range scan whose
+     * cost does not depend on the size of the faculty or on how deep the client has paged.
+     */
+    @Override
+    public Optional<FacultyRosterPage> findRoster(Long facultyId, FacultyRosterSort sort, String after,
+                                                  Integer pageSize, Integer minAge, Integer maxAge,
+                                                  boolean withTotal) {
+        int size = pageSize == null ? DEFAULT_ROSTER_PAGE_SIZE : pageSize;
+        if (size <= 0 || size > MAX_ROSTER_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "pageSize must be between 1 and " + MAX_ROSTER_PAGE_SIZE);
+        }
+        int min = minAge == null ? 0 : minAge;
+        int max = maxAge == null ? Integer.MAX_VALUE : maxAge;
+        if (min < 0 || min > max) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid age range");
+        }
+        Boolean known = facultyCatalogue.contains(facultyId);
+        if (known == null ? !facultyRepository.existsById(facultyId) : !known) {
+            return Optional.empty();
+        }
+
+        RosterCursor cursor = after == null ? null : RosterCursor.decode(after);
+        Limit limit = Limit.of(size + 1);
+        List<FacultyRosterEntry> items = switch (sort) {
+            case ID -> studentsRepository.findRosterById(facultyId, min, max,
+                    cursor == null ? Long.MIN_VALUE : cursor.id(), limit);
+            case AGE -> cursor == null
+                    ? studentsRepository.findRosterByAge(facultyId, min, max, Integer.MIN_VALUE, Long.MIN_VALUE, limit)
+                    : studentsRepository.findRosterByAge(facultyId, min, max, cursor.ageKey(), cursor.id(), limit);
+            case NAME -> findRosterByName(facultyId, min, max, cursor, size);
+        };
+
+        String nextCursor = null;
+        if (items.size() > size) {
+            items = items.subList(0, size);
+            FacultyRosterEntry last = items.get(size - 1);
+            nextCursor = switch (sort) {
+                case ID -> new RosterCursor(last.id(), null).encode();
+                case AGE -> new RosterCursor(last.id(), Integer.toString(last.age())).encode();
+                case NAME -> new RosterCursor(last.id(), last.name()).encode();
+            };
+        }
+        Long total = withTotal ? studentsRepository.countByFacultyIdAndAgeBetween(facultyId, min, max) : null;
+        return Optional.of(new FacultyRosterPage(items, nextCursor, total));
+    }
+
+    /**
+     * Named students come first in name order, then the students without a name in id order;
+     * a cursor without a name key continues in that tail.
+     */
+    private List<FacultyRosterEntry> findRosterByName(Long facultyId, int min, int max, RosterCursor cursor, int size) {
+        List<FacultyRosterEntry> items = new ArrayList<>(size + 1);
+        if (cursor == null || cursor.key() != null) {
+            items.addAll(cursor == null
+                    ? studentsRepository.findRosterByName(facultyId, min, max, "", Long.MIN_VALUE, Limit.of(size + 1))
+                    : studentsRepository.findRosterByName(facultyId, min, max, cursor.key(), cursor.id(), Limit.of(size + 1)));
+        }
+        if (items.size() <= size) {
+            long afterId = cursor == null || cursor.key() != null ? Long.MIN_VALUE : cursor.id();
+            items.addAll(studentsRepository.findUnnamedRoster(facultyId, min, max, afterId, Limit.of(size + 1 - items.size())));
+        }
+        return items;
     }
 }
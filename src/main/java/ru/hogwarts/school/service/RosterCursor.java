@@ -0,0 +1,40 @@
+package ru.hogwarts.school.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor for faculty rosters: the id of the last student on a page and, for
+ * name and age ordering, that student's sort key. A name cursor without a key points into
+ * the tail of students that have no name.
+ */
+record RosterCursor(long id, String key) {
+
+    static RosterCursor decode(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(':');
+            return separator < 0
+                    ? new RosterCursor(Long.parseLong(decoded), null)
+                    : new RosterCursor(Long.parseLong(decoded.substring(0, separator)), decoded.substring(separator + 1));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Malformed roster cursor");
+        }
+    }
+
+    String encode() {
+        String plain = key == null ? Long.toString(id) : id + ":" + key;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(plain.getBytes(StandardCharsets.UTF_8));
+    }
+
+    int ageKey() {
+        try {
+            return Integer.parseInt(key);
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Malformed roster cursor");
+        }
+    }
+}
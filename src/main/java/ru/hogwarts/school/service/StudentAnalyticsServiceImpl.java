@@ -0,0 +1,55 @@
+package ru.hogwarts.school.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import ru.hogwarts.school.interfaces.StudentAnalyticsService;
+import ru.hogwarts.school.model.dto.StudentAnalyticsGroup;
+import ru.hogwarts.school.model.dto.StudentDimension;
+import ru.hogwarts.school.service.analytics.StudentColumns;
+
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Answers grouped student aggregates from the in-memory {@link StudentColumns} without a
+ * database round trip. There is no fallback while the columns are being built for the first
+ * time; callers get 503 and retry.
+ */
+@Service
+public class StudentAnalyticsServiceImpl implements StudentAnalyticsService {
+
+    private static final int MAX_DIMENSIONS = 2;
+
+    @Autowired
+    private StudentColumns studentColumns;
+
+    @Override
+    public List<StudentAnalyticsGroup> aggregate(List<StudentDimension> groupBy, Long facultyId,
+                                                 Integer minAge, Integer maxAge) {
+        if (groupBy.size() > MAX_DIMENSIONS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + MAX_DIMENSIONS + " group-by dimensions are supported");
+        }
+        if (new HashSet<>(groupBy).size() != groupBy.size()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Group-by dimensions must be distinct");
+        }
+        int from = minAge != null ? minAge : Integer.MIN_VALUE;
+        int to = maxAge != null ? maxAge : Integer.MAX_VALUE;
+        if (from > to) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid age range");
+        }
+        List<StudentAnalyticsGroup> groups;
+        try {
+            groups = studentColumns.aggregate(groupBy, facultyId, from, to);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Grouping would produce more than " + StudentColumns.MAX_GROUPS + " groups");
+        }
+        if (groups == null) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Student analytics are still loading");
+        }
+        return groups;
+    }
+}
@@ -0,0 +1,173 @@
+package ru.hogwarts.school.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import ru.hogwarts.school.interfaces.StudentBatchService;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.model.dto.StudentBatchResponse;
+import ru.hogwarts.school.model.dto.StudentBatchResult;
+import ru.hogwarts.school.model.dto.StudentBatchStatus;
+import ru.hogwarts.school.model.dto.StudentDto;
+import ru.hogwarts.school.repository.FacultyRepository;
+import ru.hogwarts.school.service.catalog.FacultyCatalogue;
+import ru.hogwarts.school.repository.StudentsRepository;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Creates or updates students by name in chunks. Faculties are resolved once per request,
+ * existing students once per chunk, and new rows are flushed as JDBC batches with ids taken
+ * from the pooled sequence, so a chunk costs a handful of round trips instead of one per row.
+ * Each chunk commits on its own; a chunk that fails is reported as rejected as a whole.
+ */
+@Slf4j
+@Service
+public class StudentBatchServiceImpl implements StudentBatchService {
+
+    private static final int MIN_AGE = 17;
+
+    @Autowired
+    private StudentsRepository studentsRepository;
+
+    @Autowired
+    private FacultyRepository facultyRepository;
+
+    @Autowired
+    private FacultyCatalogue facultyCatalogue;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate transaction;
+    private final int chunkSize;
+    private final int maxSize;
+
+    public StudentBatchServiceImpl(PlatformTransactionManager transactionManager,
+                                   @Value("${student.batch.chunk-size:1000}") int chunkSize,
+                                   @Value("${student.batch.max-size:100000}") int maxSize) {
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.maxSize = maxSize;
+    }
+
+    @Override
+    public StudentBatchResponse upsertStudents(List<StudentDto> students) {
+        if (students.size() > maxSize) {
+            throw new ResponseStatusException(HttpStatus.CONTENT_TOO_LARGE,
+                    "A batch may contain at most " + maxSize + " students");
+        }
+        StudentBatchResult[] results = new StudentBatchResult[students.size()];
+        Set<Long> faculties = findFacultyIds(students);
+        Set<String> seenNames = new HashSet<>();
+        List<Integer> accepted = new ArrayList<>(students.size());
+        for (int i = 0; i < students.size(); i++) {
+            String error = validate(students.get(i), faculties, seenNames);
+            if (error != null) {
+                results[i] = new StudentBatchResult(i, null, StudentBatchStatus.REJECTED, error);
+            } else {
+                accepted.add(i);
+            }
+        }
+        for (int from = 0; from < accepted.size(); from += chunkSize) {
+            List<Integer> chunk = accepted.subList(from, Math.min(from + chunkSize, accepted.size()));
+            try {
+                transaction.executeWithoutResult(status -> upsertChunk(students, chunk, results));
+            } catch (RuntimeException e) {
+                log.warn("Unable to save student batch chunk", e);
+                for (Integer index : chunk) {
+                    results[index] = new StudentBatchResult(index, null, StudentBatchStatus.REJECTED, e.getMessage());
+                }
+            }
+        }
+        return summarize(results);
+    }
+
+    private Set<Long> findFacultyIds(List<StudentDto> students) {
+        Set<Long> facultyIds = students.stream()
+                .map(StudentDto::getFacultyId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<Long> existing = facultyCatalogue.findExisting(facultyIds);
+        if (existing != null) {
+            return existing;
+        }
+        return facultyRepository.findAllById(facultyIds).stream()
+                .map(Faculty::getId)
+                .collect(Collectors.toSet());
+    }
+
+    private static String validate(StudentDto student, Set<Long> faculties, Set<String> seenNames) {
+        if (student == null || student.getName() == null || student.getName().isBlank()) {
+            return "Name is required";
+        }
+        if (student.getAge() < MIN_AGE) {
+            return "Age must be greater than 16";
+        }
+        if (student.getFacultyId() != null && !faculties.contains(student.getFacultyId())) {
+            return "Faculty not found";
+        }
+        if (!seenNames.add(student.getName())) {
+            return "Duplicate name in batch";
+        }
+        return null;
+    }
+
+    private void upsertChunk(List<StudentDto> students, List<Integer> chunk, StudentBatchResult[] results) {
+        Set<String> names = chunk.stream().map(index -> students.get(index).getName()).collect(Collectors.toSet());
+        Map<String, List<Student>> existing = studentsRepository.findByNameIn(names).stream()
+                .collect(Collectors.groupingBy(Student::getName));
+        List<Student> saved = new ArrayList<>(chunk.size());
+        List<Integer> savedIndexes = new ArrayList<>(chunk.size());
+        for (Integer index : chunk) {
+            StudentDto dto = students.get(index);
+            List<Student> matches = existing.getOrDefault(dto.getName(), List.of());
+            if (matches.size() > 1) {
+                results[index] = new StudentBatchResult(index, null, StudentBatchStatus.REJECTED,
+                        "Ambiguous name: " + matches.size() + " students are named " + dto.getName());
+                continue;
+            }
+            Student student = matches.isEmpty() ? new Student() : matches.get(0);
+            student.setName(dto.getName());
+            student.setAge(dto.getAge());
+            if (dto.getFacultyId() != null) {
+                student.setFaculty(entityManager.getReference(Faculty.class, dto.getFacultyId()));
+            }
+            saved.add(student);
+            savedIndexes.add(index);
+        }
+        studentsRepository.saveAll(saved);
+        studentsRepository.flush();
+        for (int i = 0; i < saved.size(); i++) {
+            Integer index = savedIndexes.get(i);
+            Student student = saved.get(i);
+            StudentBatchStatus status = existing.containsKey(student.getName())
+                    ? StudentBatchStatus.UPDATED : StudentBatchStatus.CREATED;
+            results[index] = new StudentBatchResult(index, student.getId(), status, null);
+        }
+        entityManager.clear();
+    }
+
+    private static StudentBatchResponse summarize(StudentBatchResult[] results) {
+        int created = 0;
+        int updated = 0;
+        int rejected = 0;
+        for (StudentBatchResult result : results) {
+            switch (result.status()) {
+                case CREATED -> created++;
+                case UPDATED -> updated++;
+                case REJECTED -> rejected++;
+            }
+        }
+        return new StudentBatchResponse(created, updated, rejected, Arrays.asList(results));
+    }
+}
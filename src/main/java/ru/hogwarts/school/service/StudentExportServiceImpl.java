@@ -0,0 +1,116 @@
+package ru.hogwarts.school.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.hogwarts.school.interfaces.StudentExportService;
+import ru.hogwarts.school.model.dto.StudentExportFormat;
+import ru.hogwarts.school.model.dto.StudentExportRow;
+import ru.hogwarts.school.repository.StudentsRepository;
+import ru.hogwarts.school.service.csv.CsvRecordReader;
+import tools.jackson.databind.SequenceWriter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Streams every student as NDJSON or CSV. Rows come from a forward-only cursor over a
+ * constructor projection, read inside a read-only transaction so the JDBC fetch size is
+ * honoured, and are written out as they arrive; no row outlives its own write.
+ */
+@Service
+public class StudentExportServiceImpl implements StudentExportService {
+
+    private static final int FLUSH_INTERVAL = 1000;
+    private static final String CSV_HEADER = "id,name,age,facultyId,facultyName";
+
+    @Autowired
+    private StudentsRepository studentsRepository;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    public StudentExportServiceImpl(PlatformTransactionManager transactionManager) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public void exportStudents(StudentExportFormat format, OutputStream out) throws IOException {
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<StudentExportRow> rows = studentsRepository.streamExportRows()) {
+                    if (format == StudentExportFormat.CSV) {
+                        writeCsv(rows.iterator(), out);
+                    } else {
+                        writeNdjson(rows.iterator(), out);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void writeNdjson(Iterator<StudentExportRow> rows, OutputStream out) throws IOException {
+        int written = 0;
+        try (SequenceWriter writer = jsonMapper.writer().withRootValueSeparator("\n").writeValues(nonClosing(out))) {
+            while (rows.hasNext()) {
+                writer.write(rows.next());
+                if (++written % FLUSH_INTERVAL == 0) {
+                    writer.flush();
+                }
+            }
+        }
+        if (written > 0) {
+            out.write('\n');
+        }
+        out.flush();
+    }
+
+    private static void writeCsv(Iterator<StudentExportRow> rows, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(nonClosing(out), StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write("\r\n");
+        int written = 0;
+        while (rows.hasNext()) {
+            StudentExportRow row = rows.next();
+            writer.write(String.valueOf(row.id()));
+            writer.write(',');
+            writer.write(CsvRecordReader.escape(row.name()));
+            writer.write(',');
+            writer.write(Integer.toString(row.age()));
+            writer.write(',');
+            writer.write(row.facultyId() != null ? row.facultyId().toString() : "");
+            writer.write(',');
+            writer.write(CsvRecordReader.escape(row.facultyName()));
+            writer.write("\r\n");
+            if (++written % FLUSH_INTERVAL == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+    }
+
+    private static OutputStream nonClosing(OutputStream out) {
+        return new FilterOutputStream(out) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        };
+    }
+}
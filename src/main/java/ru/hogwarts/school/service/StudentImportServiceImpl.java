@@ -0,0 +1,371 @@
+package ru.hogwarts.school.service;
+
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import ru.hogwarts.school.interfaces.EntityCacheService;
+import ru.hogwarts.school.interfaces.StudentBatchService;
+import ru.hogwarts.school.interfaces.StudentImportService;
+import ru.hogwarts.school.model.dto.*;
+import ru.hogwarts.school.service.csv.CsvRecordReader;
+import ru.hogwarts.school.service.events.StudentsReloadedEvent;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads students from CSV with columns {@code name,age,facultyId}. Records are parsed as a
+ * stream and validated in parallel chunks against the rules of {@code scripts421.sql}
+ * (name required, age above 16, age defaulting to 20). On PostgreSQL valid rows are
+ * COPYed into a temporary staging table, checked for unknown faculties and duplicate
+ * names there, and merged into {@code student} by name in one statement. Other databases
+ * fall back to the batched upsert.
+ * <p>
+ * After a COPY import the entity caches are evicted before the response, while the in-memory
+ * views are rebuilt in the background; a rebuild already queued covers later imports too.
+ */
+@Service
+public class StudentImportServiceImpl implements StudentImportService {
+
+    private static final int DEFAULT_AGE = 20;
+    private static final int MIN_AGE = 17;
+    private static final int MAX_NAME_LENGTH = 255;
+
+    private static final String CREATE_STAGING = """
+            CREATE TEMPORARY TABLE student_import (
+                line BIGINT,
+                name VARCHAR(255),
+                age INTEGER,
+                faculty_id BIGINT
+            ) ON COMMIT DROP
+            """;
+    private static final String COPY_STAGING =
+            "COPY student_import (line, name, age, faculty_id) FROM STDIN WITH (FORMAT csv)";
+    private static final String REJECT_UNKNOWN_FACULTIES = """
+            DELETE FROM student_import i
+            WHERE i.faculty_id IS NOT NULL
+              AND NOT EXISTS (SELECT 1 FROM faculty f WHERE f.id = i.faculty_id)
+            RETURNING i.line
+            """;
+    private static final String REJECT_DUPLICATE_NAMES = """
+            DELETE FROM student_import i
+            USING student_import d
+            WHERE d.name = i.name AND d.line < i.line
+            RETURNING i.line
+            """;
+    private static final String MERGE = """
+            WITH updated AS (
+                UPDATE student s
+                SET age = i.age, faculty_id = COALESCE(i.faculty_id, s.faculty_id), version = s.version + 1
+                FROM student_import i
+                WHERE s.name = i.name
+                RETURNING s.name
+            ), inserted AS (
+                INSERT INTO student (name, age, faculty_id, version)
+                SELECT i.name, i.age, i.faculty_id, 0
+                FROM student_import i
+                WHERE NOT EXISTS (SELECT 1 FROM updated u WHERE u.name = i.name)
+                RETURNING 1
+            )
+            SELECT (SELECT COUNT(*) FROM updated), (SELECT COUNT(*) FROM inserted)
+            """;
+
+    @Autowired
+    private StudentBatchService studentBatchService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private EntityCacheService entityCacheService;
+
+    private final DataSource dataSource;
+    private final TransactionTemplate transaction;
+    private final int chunkSize;
+    private final int maxErrors;
+    private volatile Boolean copySupported;
+    private final ThreadPoolExecutor reloads = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(1), new CustomizableThreadFactory("student-reload-"),
+            new ThreadPoolExecutor.DiscardPolicy());
+
+    public StudentImportServiceImpl(DataSource dataSource,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${student.import.chunk-size:10000}") int chunkSize,
+                                    @Value("${student.import.max-errors:1000}") int maxErrors) {
+        this.dataSource = dataSource;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.maxErrors = maxErrors;
+    }
+
+    @Override
+    public StudentImportReport importStudents(InputStream csv) throws IOException {
+        ImportProgress progress = new ImportProgress(maxErrors);
+        try (CsvRecordReader reader = new CsvRecordReader(new InputStreamReader(csv, StandardCharsets.UTF_8))) {
+            Columns columns = Columns.of(reader.next());
+            if (isCopySupported()) {
+                copyImport(reader, columns, progress);
+                entityCacheService.evictStudents();
+                reloads.execute(() -> eventPublisher.publishEvent(new StudentsReloadedEvent()));
+            } else {
+                batchImport(reader, columns, progress);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return progress.report();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        reloads.shutdownNow();
+    }
+
+    private void copyImport(CsvRecordReader reader, Columns columns, ImportProgress progress) {
+        transaction.executeWithoutResult(status -> {
+            Connection connection = DataSourceUtils.getConnection(dataSource);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(CREATE_STAGING);
+                CopyIn copy = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_STAGING);
+                try {
+                    StringBuilder buffer = new StringBuilder();
+                    forEachValidChunk(reader, columns, progress, rows -> {
+                        buffer.setLength(0);
+                        for (ImportRow row : rows) {
+                            buffer.append(row.line()).append(',')
+                                    .append(CsvRecordReader.escape(row.name())).append(',')
+                                    .append(row.age()).append(',')
+                                    .append(row.facultyId() != null ? row.facultyId().toString() : "")
+                                    .append('\n');
+                        }
+                        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+                        try {
+                            copy.writeToCopy(bytes, 0, bytes.length);
+                        } catch (SQLException e) {
+                            throw new IllegalStateException("COPY into staging table failed", e);
+                        }
+                    });
+                    copy.endCopy();
+                } finally {
+                    if (copy.isActive()) {
+                        copy.cancelCopy();
+                    }
+                }
+                rejectReturnedLines(statement, REJECT_UNKNOWN_FACULTIES, "Faculty not found", progress);
+                rejectReturnedLines(statement, REJECT_DUPLICATE_NAMES, "Duplicate name in file", progress);
+                try (ResultSet merged = statement.executeQuery(MERGE)) {
+                    merged.next();
+                    progress.updated += merged.getLong(1);
+                    progress.inserted += merged.getLong(2);
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException("Student import failed", e);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static void rejectReturnedLines(Statement statement, String sql, String message,
+                                            ImportProgress progress) throws SQLException {
+        try (ResultSet rejected = statement.executeQuery(sql)) {
+            while (rejected.next()) {
+                progress.reject(rejected.getLong(1), message);
+            }
+        }
+    }
+
+    private void batchImport(CsvRecordReader reader, Columns columns, ImportProgress progress) throws IOException {
+        forEachValidChunk(reader, columns, progress, rows -> {
+            List<StudentDto> students = rows.stream()
+                    .map(row -> new StudentDto(row.name(), row.age(), row.facultyId()))
+                    .toList();
+            StudentBatchResponse response = studentBatchService.upsertStudents(students);
+            progress.inserted += response.created();
+            progress.updated += response.updated();
+            for (StudentBatchResult result : response.results()) {
+                if (result.status() == StudentBatchStatus.REJECTED) {
+                    progress.reject(rows.get(result.index()).line(), result.error());
+                }
+            }
+        });
+    }
+
+    private void forEachValidChunk(CsvRecordReader reader, Columns columns, ImportProgress progress,
+                                   ChunkConsumer consumer) throws IOException {
+        List<RawRecord> chunk = new ArrayList<>(chunkSize);
+        String[] record;
+        while ((record = reader.next()) != null) {
+            if (record.length == 1 && record[0].isBlank()) {
+                continue;
+            }
+            chunk.add(new RawRecord(reader.recordLine(), record));
+            if (chunk.size() == chunkSize) {
+                acceptChunk(chunk, columns, progress, consumer);
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            acceptChunk(chunk, columns, progress, consumer);
+        }
+    }
+
+    private static void acceptChunk(List<RawRecord> chunk, Columns columns, ImportProgress progress,
+                                    ChunkConsumer consumer) throws IOException {
+        List<ImportRow> validated = chunk.parallelStream()
+                .map(record -> validate(record, columns))
+                .toList();
+        List<ImportRow> valid = new ArrayList<>(validated.size());
+        for (ImportRow row : validated) {
+            progress.rows++;
+            if (row.error() != null) {
+                progress.reject(row.line(), row.error());
+            } else {
+                valid.add(row);
+            }
+        }
+        if (!valid.isEmpty()) {
+            consumer.accept(valid);
+        }
+    }
+
+    private static ImportRow validate(RawRecord record, Columns columns) {
+        String[] fields = record.fields();
+        if (fields.length != columns.count()) {
+            return ImportRow.rejected(record.line(), "Expected " + columns.count() + " columns but found " + fields.length);
+        }
+        String name = fields[columns.name()].strip();
+        if (name.isEmpty()) {
+            return ImportRow.rejected(record.line(), "Name is required");
+        }
+        if (name.length() > MAX_NAME_LENGTH) {
+            return ImportRow.rejected(record.line(), "Name is longer than " + MAX_NAME_LENGTH + " characters");
+        }
+        int age = DEFAULT_AGE;
+        if (columns.age() >= 0 && !fields[columns.age()].isBlank()) {
+            try {
+                age = Integer.parseInt(fields[columns.age()].strip());
+            } catch (NumberFormatException e) {
+                return ImportRow.rejected(record.line(), "Age must be a number");
+            }
+        }
+        if (age < MIN_AGE) {
+            return ImportRow.rejected(record.line(), "Age must be greater than 16");
+        }
+        Long facultyId = null;
+        if (columns.facultyId() >= 0 && !fields[columns.facultyId()].isBlank()) {
+            try {
+                facultyId = Long.valueOf(fields[columns.facultyId()].strip());
+            } catch (NumberFormatException e) {
+                return ImportRow.rejected(record.line(), "Faculty id must be a number");
+            }
+        }
+        return new ImportRow(record.line(), name, age, facultyId, null);
+    }
+
+    private boolean isCopySupported() {
+        Boolean supported = copySupported;
+        if (supported == null) {
+            try {
+                supported = JdbcUtils.extractDatabaseMetaData(dataSource,
+                        metaData -> "PostgreSQL".equals(metaData.getDatabaseProductName()));
+            } catch (MetaDataAccessException e) {
+                supported = false;
+            }
+            copySupported = supported;
+        }
+        return supported;
+    }
+
+    @FunctionalInterface
+    private interface ChunkConsumer {
+        void accept(List<ImportRow> rows) throws IOException;
+    }
+
+    private record RawRecord(long line, String[] fields) {
+    }
+
+    private record ImportRow(long line, String name, int age, Long facultyId, String error) {
+
+        static ImportRow rejected(long line, String error) {
+            return new ImportRow(line, null, 0, null, error);
+        }
+    }
+
+    private record Columns(int count, int name, int age, int facultyId) {
+
+        static Columns of(String[] header) {
+            if (header == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "CSV header is missing");
+            }
+            int name = -1;
+            int age = -1;
+            int facultyId = -1;
+            for (int i = 0; i < header.length; i++) {
+                switch (header[i].strip().toLowerCase(Locale.ROOT)) {
+                    case "name" -> name = i;
+                    case "age" -> age = i;
+                    case "facultyid", "faculty_id" -> facultyId = i;
+                    default -> {
+                    }
+                }
+            }
+            if (name < 0) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "CSV header must contain a name column");
+            }
+            return new Columns(header.length, name, age, facultyId);
+        }
+    }
+
+    private static final class ImportProgress {
+
+        private final int maxErrors;
+        private final List<StudentImportError> errors = new ArrayList<>();
+        private long rows;
+        private long inserted;
+        private long updated;
+        private long rejected;
+
+        private ImportProgress(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        private void reject(long line, String message) {
+            rejected++;
+            if (errors.size() < maxErrors) {
+                errors.add(new StudentImportError(line, message));
+            }
+        }
+
+        private StudentImportReport report() {
+            errors.sort((a, b) -> Long.compare(a.line(), b.line()));
+            return new StudentImportReport(rows, inserted, updated, rejected, errors);
+        }
+    }
+}
@@ -1,17 +1,34 @@
 package ru.hogwarts.school.service;
 
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.transaction.Transactional;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 import ru.hogwarts.school.interfaces.StudentService;
 import ru.hogwarts.school.model.Faculty;
 import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.model.dto.MultiGetResponse;
+import ru.hogwarts.school.model.dto.StudentAgeCount;
 import ru.hogwarts.school.model.dto.StudentDto;
+import ru.hogwarts.school.model.dto.StudentPatch;
 import ru.hogwarts.school.repository.FacultyRepository;
 import ru.hogwarts.school.repository.StudentsRepository;
+import ru.hogwarts.school.service.catalog.FacultyCatalogue;
+import ru.hogwarts.school.service.events.StudentSnapshot;
+import ru.hogwarts.school.service.lookup.EntityMultiGet;
+import ru.hogwarts.school.service.stats.RecentStudents;
+import ru.hogwarts.school.service.stats.StudentAgeIndex;
+import ru.hogwarts.school.service.stats.StudentAggregates;
+import ru.hogwarts.school.service.stats.StudentNameIndex;
 
-import java.util.Collection;
-import java.util.Optional;
+import java.util.*;
+import java.util.function.Supplier;
 
 @Service
 public class StudentServiceImpl implements StudentService {
@@ -22,10 +39,29 @@ public class StudentServiceImpl implements StudentService {
     @Autowired
     private FacultyRepository facultyRepository;
 
+    @Autowired
+    private StudentAggregates studentAggregates;
+
+    @Autowired
+    private StudentAgeIndex studentAgeIndex;
+
+    @Autowired
+    private RecentStudents recentStudents;
+
+    @Autowired
+    private EntityMultiGet entityMultiGet;
+
+    @Autowired
+    private FacultyCatalogue facultyCatalogue;
+
+    @Autowired
+    private StudentNameIndex studentNameIndex;
+
     @Override
+    @Transactional
     public Student createNewStudent(StudentDto studentDto) {
-        Faculty faculty = facultyRepository.findById(studentDto.getFacultyId())
-                .orElseThrow(() -> new IllegalArgumentException("Faculty not found"));
+        Faculty faculty = requireFaculty(studentDto.getFacultyId(),
+                () -> new IllegalArgumentException("Faculty not found"));
 
         Student newStudent = Student.builder()
                 .name(studentDto.getName())
@@ -41,10 +77,14 @@ public class StudentServiceImpl implements StudentService {
         return studentsRepository.findById(id);
     }
 
+    @Override
+    public MultiGetResponse<Student> getExistentStudents(List<Long> ids) {
+        return entityMultiGet.findStudents(ids);
+    }
+
     @Override
     public Optional<Faculty> getStudentFaculty(Long studentId) {
-        return studentsRepository.findById(studentId)
-                .map(Student::getFaculty);
+        return facultyRepository.findByStudentId(studentId);
     }
 
     @Override
@@ -60,42 +100,163 @@ public class StudentServiceImpl implements StudentService {
             student.setAge(studentDto.getAge());
         }
         if (studentDto.getFacultyId() != null) {
-            Faculty faculty = facultyRepository.findById(studentDto.getFacultyId())
-                    .orElseThrow(() -> new EntityNotFoundException("Faculty not found"));
-            student.setFaculty(faculty);
+            student.setFaculty(requireFaculty(studentDto.getFacultyId(),
+                    () -> new EntityNotFoundException("Faculty not found")));
         }
 
         return studentsRepository.save(student);
     }
 
+    /**
+     * Applies the provided fields to the (usually second-level cached) student and lets
+     * dirty checking write only the changed columns, guarded by the version, in one UPDATE.
+     * A new faculty is referenced by id without being loaded; an unknown one surfaces as a
+     * foreign key violation on flush.
+     */
+    @Override
+    @Transactional
+    public Student patchStudent(Long studentId, StudentPatch patch, Long expectedVersion) {
+        Student student = studentsRepository.findById(studentId)
+                .orElseThrow(() -> new EntityNotFoundException("Student not found"));
+        VersionChecks.check(expectedVersion, student.getVersion());
+        if (patch.name() != null) {
+            student.setName(patch.name());
+        }
+        if (patch.age() != null) {
+            student.setAge(patch.age());
+        }
+        if (patch.facultyId() != null
+                && (student.getFaculty() == null || !patch.facultyId().equals(student.getFaculty().getId()))) {
+            student.setFaculty(facultyRepository.getReferenceById(patch.facultyId()));
+        }
+        try {
+            studentsRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            if (violatesFacultyReference(e)) {
+                throw new EntityNotFoundException("Faculty not found");
+            }
+            throw e;
+        } catch (OptimisticLockingFailureException e) {
+            throw VersionChecks.conflict(expectedVersion);
+        }
+        return student;
+    }
+
     @Override
     public void deleteExistentStudent(Long id) {
         studentsRepository.deleteById(id);
     }
 
     @Override
-    public Collection<Student> findByAge(int age) {
-        return studentsRepository.findByAge(age);
+    public Iterable<Student> findByAge(int age) {
+        long[] ids = studentAgeIndex.findIds(age, age);
+        if (ids == null) {
+            return studentsRepository.findByAge(age);
+        }
+        return entityMultiGet.streamStudents(ids);
     }
 
     @Override
     public Long findStudentsQuantity() {
-        return studentsRepository.findStudentsQuantity();
+        return studentAggregates.count();
     }
 
     @Override
     public Double findStudentsAverageAge() {
-        return studentsRepository.findStudentsAverageAge();
+        return studentAggregates.averageAge();
     }
 
     @Override
     public Collection<Student> findLastFiveStudents() {
-        return studentsRepository.findLastFiveStudents();
+        return findLastStudents(5);
+    }
+
+    @Override
+    public Collection<Student> findLastStudents(int n) {
+        if (n < 1 || n > recentStudents.maxPage()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "n must be between 1 and " + recentStudents.maxPage());
+        }
+        List<StudentSnapshot> latest = recentStudents.latest(n);
+        if (latest == null) {
+            latest = studentsRepository.findLatestSnapshots(Limit.of(n));
+        }
+        return latest.stream().map(StudentServiceImpl::toStudent).toList();
+    }
+
+    /**
+     * Case-insensitive name search ranked exact, prefix, then substring. Served from the
+     * in-memory trigram index; before it is built, and for one- or two-character queries that
+     * prefixes alone do not answer, a leading-wildcard LIKE scans the table.
+     */
+    @Override
+    public Collection<Student> searchByName(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "q must not be blank");
+        }
+        if (limit < 1 || limit > studentNameIndex.maxResults()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "limit must be between 1 and " + studentNameIndex.maxResults());
+        }
+        List<StudentSnapshot> found = studentNameIndex.search(query, limit);
+        if (found == null) {
+            String key = query.toLowerCase(Locale.ROOT);
+            String escaped = key.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+            found = studentsRepository.searchSnapshotsByName(key, escaped + "%", "%" + escaped + "%", Limit.of(limit));
+        }
+        return found.stream().map(StudentServiceImpl::toStudent).toList();
     }
 
+    @Override
+    public Iterable<Student> findByAgeBetweenValues(int minAge, int maxAge) {
+        long[] ids = studentAgeIndex.findIds(minAge, maxAge);
+        if (ids == null) {
+            return studentsRepository.findByAgeBetween(minAge, maxAge);
+        }
+        return entityMultiGet.streamStudents(ids);
+    }
 
     @Override
-    public Collection<Student> findByAgeBetweenValues(int minAge, int maxAge) {
-        return studentsRepository.findByAgeBetween(minAge, maxAge);
+    public List<StudentAgeCount> findAgeHistogram() {
+        List<StudentAgeCount> histogram = studentAgeIndex.histogram();
+        return histogram != null ? histogram : studentsRepository.findAgeHistogram();
+    }
+
+    private static Student toStudent(StudentSnapshot snapshot) {
+        return Student.builder()
+                .id(snapshot.id())
+                .name(snapshot.name())
+                .age(snapshot.age())
+                .version(snapshot.version())
+                .faculty(snapshot.facultyId() != null ? Faculty.builder().id(snapshot.facultyId()).build() : null)
+                .build();
+    }
+
+    /**
+     * Whether the flush failed on the student's faculty reference rather than on any other
+     * constraint. Drivers may qualify the constraint name with the schema, so only its
+     * presence is checked.
+     */
+    private static boolean violatesFacultyReference(DataIntegrityViolationException e) {
+        return e.getCause() instanceof ConstraintViolationException violation
+                && violation.getKind() == ConstraintViolationException.ConstraintKind.FOREIGN_KEY
+                && violation.getConstraintName() != null
+                && violation.getConstraintName().toLowerCase(Locale.ROOT).contains(Student.FACULTY_FOREIGN_KEY);
+    }
+
+    /**
+     * Checks the faculty against the in-memory catalogue and returns a reference without
+     * reading the row; a faculty the catalogue does not know is looked up in the table before
+     * it is rejected, and until the catalogue is loaded the faculty is read from the table.
+     */
+    private Faculty requireFaculty(Long facultyId, Supplier<? extends RuntimeException> notFound) {
+        Boolean known = facultyCatalogue.contains(facultyId);
+        if (known == null) {
+            return facultyRepository.findById(facultyId).orElseThrow(notFound);
+        }
+        if (!known) {
+            throw notFound.get();
+        }
+        return facultyRepository.getReferenceById(facultyId);
     }
 }
@@ -0,0 +1,26 @@
+package ru.hogwarts.school.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Optimistic version checks for partial updates: a client that sent {@code If-Match} gets
+ * 412 when the entity moved on, a client that did not gets 409 when a concurrent write won.
+ */
+final class VersionChecks {
+
+    private VersionChecks() {
+    }
+
+    static void check(Long expectedVersion, Long actualVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(actualVersion)) {
+            throw conflict(expectedVersion);
+        }
+    }
+
+    static ResponseStatusException conflict(Long expectedVersion) {
+        return expectedVersion != null
+                ? new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Entity version does not match If-Match")
+                : new ResponseStatusException(HttpStatus.CONFLICT, "Entity was modified concurrently");
+    }
+}
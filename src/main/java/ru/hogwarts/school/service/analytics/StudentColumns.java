@@ -0,0 +1,302 @@
+package ru.hogwarts.school.service.analytics;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.hogwarts.school.model.dto.StudentAnalyticsGroup;
+import ru.hogwarts.school.model.dto.StudentDimension;
+import ru.hogwarts.school.model.dto.StudentExportRow;
+import ru.hogwarts.school.repository.StudentsRepository;
+import ru.hogwarts.school.service.events.StudentChangedEvent;
+import ru.hogwarts.school.service.events.StudentReplica;
+import ru.hogwarts.school.service.events.StudentSnapshot;
+import ru.hogwarts.school.service.events.StudentsReloadedEvent;
+
+import java.util.*;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Column-wise copy of the student table for analytics: one array per attribute, rows sorted
+ * by id, with faculties and names dictionary-encoded so grouping works on dense integer
+ * codes. Kept as a {@link StudentReplica} and scanned in parallel chunks on the common
+ * fork-join pool.
+ * <p>
+ * Deleted rows are only marked and are compacted away once they make up a quarter of the
+ * columns. Dictionaries only grow until the next rebuild.
+ */
+@Component
+public class StudentColumns {
+
+    public static final int MAX_GROUPS = 1 << 16;
+
+    private static final int CHUNK_ROWS = 1 << 16;
+    private static final int DELETED = -1;
+    private static final int NO_FACULTY = 0;
+    private static final int NO_NAME = 0;
+    private static final int ANY_FACULTY = -2;
+    private static final int UNKNOWN_FACULTY = -3;
+
+    @Autowired
+    private StudentsRepository studentsRepository;
+
+    private final StudentReplica<Columns> columns;
+
+    public StudentColumns(PlatformTransactionManager transactionManager) {
+        this.columns = new StudentReplica<>("student columns", transactionManager, Columns::apply);
+    }
+
+    /**
+     * Groups the live students that pass the filter by the given dimensions, or returns
+     * {@code null} until the columns are built. A {@code null} faculty filter matches every
+     * student; an unknown faculty matches none.
+     */
+    public List<StudentAnalyticsGroup> aggregate(List<StudentDimension> groupBy, Long facultyId, int minAge, int maxAge) {
+        return columns.read(table -> table.aggregate(groupBy, facultyId, minAge, maxAge));
+    }
+
+    @EventListener
+    public void onStudentChanged(StudentChangedEvent event) {
+        columns.apply(event);
+    }
+
+    @EventListener({ApplicationReadyEvent.class, StudentsReloadedEvent.class})
+    public void rebuild() {
+        columns.rebuild(() -> {
+            Columns fresh = new Columns();
+            try (Stream<StudentExportRow> rows = studentsRepository.streamExportRows()) {
+                rows.forEach(row -> fresh.upsert(row.id(), row.name(), row.age(), row.facultyId()));
+            }
+            return fresh;
+        });
+    }
+
+    private static final class Columns {
+
+        private long[] ids = new long[1024];
+        private int[] ages = new int[1024];
+        private int[] facultyCodes = new int[1024];
+        private int[] nameCodes = new int[1024];
+        private int size;
+        private int deleted;
+        private int minAge = Integer.MAX_VALUE;
+        private int maxAge = Integer.MIN_VALUE;
+
+        private final Map<Long, Integer> facultyCodeOf = new HashMap<>();
+        private final List<Long> facultyIdOf = new ArrayList<>(List.of(0L));
+        private final Map<String, Integer> nameCodeOf = new HashMap<>();
+        private int[] nameLengthOf = new int[1024];
+        private int names = 1;
+        private int maxNameLength;
+
+        private void apply(StudentChangedEvent event) {
+            StudentSnapshot after = event.after();
+            if (after != null) {
+                upsert(after.id(), after.name(), after.age(), after.facultyId());
+            } else {
+                delete(event.id());
+            }
+        }
+
+        private void upsert(long id, String name, int age, Long facultyId) {
+            int row = Arrays.binarySearch(ids, 0, size, id);
+            if (row < 0) {
+                row = -row - 1;
+                grow();
+                if (row < size) {
+                    System.arraycopy(ids, row, ids, row + 1, size - row);
+                    System.arraycopy(ages, row, ages, row + 1, size - row);
+                    System.arraycopy(facultyCodes, row, facultyCodes, row + 1, size - row);
+                    System.arraycopy(nameCodes, row, nameCodes, row + 1, size - row);
+                }
+                size++;
+                ids[row] = id;
+            } else if (facultyCodes[row] == DELETED) {
+                deleted--;
+            }
+            ages[row] = age;
+            facultyCodes[row] = facultyCode(facultyId);
+            nameCodes[row] = nameCode(name);
+            minAge = Math.min(minAge, age);
+            maxAge = Math.max(maxAge, age);
+        }
+
+        private void delete(long id) {
+            int row = Arrays.binarySearch(ids, 0, size, id);
+            if (row >= 0 && facultyCodes[row] != DELETED) {
+                facultyCodes[row] = DELETED;
+                deleted++;
+                if (deleted > size / 4) {
+                    compact();
+                }
+            }
+        }
+
+        private void compact() {
+            int live = 0;
+            for (int row = 0; row < size; row++) {
+                if (facultyCodes[row] != DELETED) {
+                    ids[live] = ids[row];
+                    ages[live] = ages[row];
+                    facultyCodes[live] = facultyCodes[row];
+                    nameCodes[live] = nameCodes[row];
+                    live++;
+                }
+            }
+            size = live;
+            deleted = 0;
+        }
+
+        private void grow() {
+            if (size == ids.length) {
+                int capacity = size + (size >> 1);
+                ids = Arrays.copyOf(ids, capacity);
+                ages = Arrays.copyOf(ages, capacity);
+                facultyCodes = Arrays.copyOf(facultyCodes, capacity);
+                nameCodes = Arrays.copyOf(nameCodes, capacity);
+            }
+        }
+
+        private int facultyCode(Long facultyId) {
+            if (facultyId == null) {
+                return NO_FACULTY;
+            }
+            return facultyCodeOf.computeIfAbsent(facultyId, id -> {
+                facultyIdOf.add(id);
+                return facultyIdOf.size() - 1;
+            });
+        }
+
+        private int nameCode(String name) {
+            if (name == null) {
+                return NO_NAME;
+            }
+            return nameCodeOf.computeIfAbsent(name, key -> {
+                if (names == nameLengthOf.length) {
+                    nameLengthOf = Arrays.copyOf(nameLengthOf, names + (names >> 1));
+                }
+                nameLengthOf[names] = key.length();
+                maxNameLength = Math.max(maxNameLength, key.length());
+                return names++;
+            });
+        }
+
+        private List<StudentAnalyticsGroup> aggregate(List<StudentDimension> groupBy, Long facultyId,
+                                                      int fromAge, int toAge) {
+            int facultyFilter = facultyId == null ? ANY_FACULTY : facultyCodeOf.getOrDefault(facultyId, UNKNOWN_FACULTY);
+            if (facultyFilter == UNKNOWN_FACULTY || size == deleted) {
+                return List.of();
+            }
+            StudentDimension[] dimensions = groupBy.toArray(StudentDimension[]::new);
+            int[] cardinalities = new int[dimensions.length];
+            long cells = 1;
+            for (int d = 0; d < dimensions.length; d++) {
+                cardinalities[d] = switch (dimensions[d]) {
+                    case FACULTY -> facultyIdOf.size();
+                    case AGE -> (int) Math.min(MAX_GROUPS + 1L, (long) maxAge - minAge + 1);
+                    case NAME_LENGTH -> maxNameLength + 1;
+                };
+                cells *= cardinalities[d];
+            }
+            if (cells > MAX_GROUPS) {
+                throw new IllegalArgumentException("Too many groups: " + cells);
+            }
+            int cellCount = (int) cells;
+
+            int chunks = (size + CHUNK_ROWS - 1) / CHUNK_ROWS;
+            Accumulator total = IntStream.range(0, chunks)
+                    .parallel()
+                    .mapToObj(chunk -> scan(chunk * CHUNK_ROWS, Math.min(size, (chunk + 1) * CHUNK_ROWS),
+                            dimensions, cardinalities, cellCount, facultyFilter, fromAge, toAge))
+                    .reduce(Accumulator::merge)
+                    .orElseGet(() -> new Accumulator(cellCount));
+
+            List<StudentAnalyticsGroup> groups = new ArrayList<>();
+            for (int cell = 0; cell < cellCount; cell++) {
+                if (total.counts[cell] > 0) {
+                    groups.add(new StudentAnalyticsGroup(decode(cell, dimensions, cardinalities), total.counts[cell],
+                            (double) total.ageSums[cell] / total.counts[cell], total.minAges[cell], total.maxAges[cell]));
+                }
+            }
+            return groups;
+        }
+
+        private Accumulator scan(int from, int to, StudentDimension[] dimensions, int[] cardinalities, int cells,
+                                 int facultyFilter, int fromAge, int toAge) {
+            Accumulator accumulator = new Accumulator(cells);
+            for (int row = from; row < to; row++) {
+                int faculty = facultyCodes[row];
+                int age = ages[row];
+                if (faculty == DELETED || age < fromAge || age > toAge
+                        || (facultyFilter != ANY_FACULTY && faculty != facultyFilter)) {
+                    continue;
+                }
+                int cell = 0;
+                for (int d = 0; d < dimensions.length; d++) {
+                    int value = switch (dimensions[d]) {
+                        case FACULTY -> faculty;
+                        case AGE -> age - minAge;
+                        case NAME_LENGTH -> nameLengthOf[nameCodes[row]];
+                    };
+                    cell = cell * cardinalities[d] + value;
+                }
+                accumulator.add(cell, age);
+            }
+            return accumulator;
+        }
+
+        private Map<String, Long> decode(int cell, StudentDimension[] dimensions, int[] cardinalities) {
+            Map<String, Long> key = new LinkedHashMap<>();
+            long[] values = new long[dimensions.length];
+            for (int d = dimensions.length - 1; d >= 0; d--) {
+                values[d] = cell % cardinalities[d];
+                cell /= cardinalities[d];
+            }
+            for (int d = 0; d < dimensions.length; d++) {
+                int value = (int) values[d];
+                key.put(dimensions[d].key(), switch (dimensions[d]) {
+                    case FACULTY -> value == NO_FACULTY ? null : facultyIdOf.get(value);
+                    case AGE -> (long) (minAge + value);
+                    case NAME_LENGTH -> (long) value;
+                });
+            }
+            return key;
+        }
+    }
+
+    private static final class Accumulator {
+
+        private final long[] counts;
+        private final long[] ageSums;
+        private final int[] minAges;
+        private final int[] maxAges;
+
+        private Accumulator(int cells) {
+            counts = new long[cells];
+            ageSums = new long[cells];
+            minAges = new int[cells];
+            maxAges = new int[cells];
+            Arrays.fill(minAges, Integer.MAX_VALUE);
+            Arrays.fill(maxAges, Integer.MIN_VALUE);
+        }
+
+        private void add(int cell, int age) {
+            counts[cell]++;
+            ageSums[cell] += age;
+            minAges[cell] = Math.min(minAges[cell], age);
+            maxAges[cell] = Math.max(maxAges[cell], age);
+        }
+
+        private Accumulator merge(Accumulator other) {
+            for (int cell = 0; cell < counts.length; cell++) {
+                counts[cell] += other.counts[cell];
+                ageSums[cell] += other.ageSums[cell];
+                minAges[cell] = Math.min(minAges[cell], other.minAges[cell]);
+                maxAges[cell] = Math.max(maxAges[cell], other.maxAges[cell]);
+            }
+            return this;
+        }
+    }
+}
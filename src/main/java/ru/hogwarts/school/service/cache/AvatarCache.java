@@ -0,0 +1,131 @@
+package ru.hogwarts.school.service.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.hogwarts.school.model.dto.AvatarCacheStatistics;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Byte-budgeted LRU cache of avatar payloads keyed by student id. Payloads live in direct
+ * buffers, so cached bytes stay outside the Java heap. Every entry carries the content
+ * checksum as its version.
+ * <p>
+ * Loaders read {@link #generation()} before going to the database and pass it to
+ * {@link #put}; an invalidation in between bumps the generation and the stale payload
+ * is dropped instead of cached.
+ */
+@Component
+public class AvatarCache {
+
+    private final long maxBytes;
+    private final long maxEntryBytes;
+    private final LinkedHashMap<Long, CachedAvatar> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private long usedBytes;
+
+    public AvatarCache(@Value("${avatar.cache.max-bytes:67108864}") long maxBytes,
+                       @Value("${avatar.cache.max-entry-bytes:1048576}") long maxEntryBytes) {
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = maxEntryBytes;
+    }
+
+    public Optional<CachedAvatar> get(Long studentId) {
+        CachedAvatar cached;
+        synchronized (entries) {
+            cached = entries.get(studentId);
+        }
+        if (cached == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(cached);
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    public boolean accepts(long length) {
+        return length <= maxEntryBytes && length <= maxBytes;
+    }
+
+    /**
+     * A direct buffer of {@code length} bytes for a loader to fill while it streams the
+     * payload, or {@code null} if a payload that large would not be cached. The filled
+     * buffer is handed over with {@link #adopt}.
+     */
+    public ByteBuffer allocate(long length) {
+        return accepts(length) ? ByteBuffer.allocateDirect((int) length) : null;
+    }
+
+    public Optional<CachedAvatar> put(Long studentId, long loadedGeneration,
+                                      String checksum, String mediaType, ByteBuffer data) {
+        if (!accepts(data.remaining())) {
+            return Optional.empty();
+        }
+        ByteBuffer copy = ByteBuffer.allocateDirect(data.remaining());
+        copy.put(data.duplicate()).flip();
+        return adopt(studentId, loadedGeneration, checksum, mediaType, copy);
+    }
+
+    /**
+     * Caches a direct buffer obtained from {@link #allocate} without copying it. The caller
+     * gives up the buffer and must not write to it afterwards.
+     */
+    public Optional<CachedAvatar> adopt(Long studentId, long loadedGeneration,
+                                        String checksum, String mediaType, ByteBuffer data) {
+        if (!data.isDirect() || !accepts(data.remaining())) {
+            return Optional.empty();
+        }
+        CachedAvatar cached = new CachedAvatar(checksum, mediaType, data.slice());
+        synchronized (entries) {
+            if (generation.get() != loadedGeneration) {
+                return Optional.empty();
+            }
+            CachedAvatar previous = entries.put(studentId, cached);
+            if (previous != null) {
+                usedBytes -= previous.length();
+            }
+            usedBytes += cached.length();
+            evictOverflow();
+        }
+        return Optional.of(cached);
+    }
+
+    public void invalidate(Long studentId) {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            CachedAvatar removed = entries.remove(studentId);
+            if (removed != null) {
+                usedBytes -= removed.length();
+            }
+        }
+    }
+
+    public AvatarCacheStatistics statistics() {
+        synchronized (entries) {
+            return new AvatarCacheStatistics(hits.sum(), misses.sum(), evictions.sum(),
+                    entries.size(), usedBytes, maxBytes);
+        }
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<Long, CachedAvatar>> eldest = entries.entrySet().iterator();
+        while (usedBytes > maxBytes && eldest.hasNext()) {
+            usedBytes -= eldest.next().getValue().length();
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+}
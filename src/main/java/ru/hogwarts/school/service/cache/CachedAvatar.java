@@ -0,0 +1,14 @@
+package ru.hogwarts.school.service.cache;
+
+import java.nio.ByteBuffer;
+
+public record CachedAvatar(String checksum, String mediaType, ByteBuffer data) {
+
+    public long length() {
+        return data.capacity();
+    }
+
+    public ByteBuffer content() {
+        return data.asReadOnlyBuffer();
+    }
+}
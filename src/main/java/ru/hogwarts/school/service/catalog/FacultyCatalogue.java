@@ -0,0 +1,203 @@
+package ru.hogwarts.school.service.catalog;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.hogwarts.school.repository.FacultyRepository;
+import ru.hogwarts.school.service.events.FacultyChangedEvent;
+import ru.hogwarts.school.service.events.FacultySnapshot;
+
+import java.util.*;
+
+/**
+ * Every faculty held in memory as an immutable catalogue with lower-cased name and color
+ * keys, so faculty lookups and faculty checks on student writes need no query. Committed
+ * faculty changes build a new catalogue from a copy of the current one and publish it with
+ * a single reference swap; readers always see one consistent catalogue without locking.
+ * <p>
+ * A periodic refresh reloads the catalogue from the table to pick up writes this instance
+ * did not see. Lookups return {@code null} until the first load and callers fall back to
+ * the database. Existence checks never trust a miss: an id the catalogue does not know is
+ * looked up in the table, and a faculty found there is added to the catalogue.
+ */
+@Slf4j
+@Component
+public class FacultyCatalogue {
+
+    private static final int REFRESH_ATTEMPTS = 3;
+
+    @Autowired
+    private FacultyRepository facultyRepository;
+
+    private final Object writeMonitor = new Object();
+    private volatile Catalogue catalogue;
+    private long changes;
+
+    public Boolean contains(Long facultyId) {
+        if (catalogue == null) {
+            return null;
+        }
+        return facultyId != null && !findExisting(Set.of(facultyId)).isEmpty();
+    }
+
+    /**
+     * The given ids that name a faculty, or {@code null} before the first load. Ids missing
+     * from the catalogue are read from the table in one query.
+     */
+    public Set<Long> findExisting(Collection<Long> facultyIds) {
+        Catalogue current = catalogue;
+        if (current == null) {
+            return null;
+        }
+        Set<Long> existing = new HashSet<>();
+        List<Long> misses = new ArrayList<>();
+        for (Long id : facultyIds) {
+            if (current.byId.containsKey(id)) {
+                existing.add(id);
+            } else {
+                misses.add(id);
+            }
+        }
+        if (!misses.isEmpty()) {
+            List<FacultySnapshot> found = facultyRepository.findSnapshotsByIdIn(misses);
+            found.forEach(faculty -> existing.add(faculty.id()));
+            remember(found);
+        }
+        return existing;
+    }
+
+    public List<Long> findIdsByColor(String color) {
+        Catalogue current = catalogue;
+        if (current == null) {
+            return null;
+        }
+        if (color == null) {
+            return List.of();
+        }
+        return current.byColor.getOrDefault(normalize(color), List.of()).stream()
+                .filter(id -> current.byId.get(id).color().equals(color))
+                .toList();
+    }
+
+    public List<Long> findIdsByNameOrColorIgnoreCase(String value) {
+        Catalogue current = catalogue;
+        if (current == null) {
+            return null;
+        }
+        if (value == null) {
+            return List.of();
+        }
+        String key = normalize(value);
+        SortedSet<Long> ids = new TreeSet<>(current.byName.getOrDefault(key, List.of()));
+        ids.addAll(current.byColor.getOrDefault(key, List.of()));
+        return List.copyOf(ids);
+    }
+
+    @EventListener
+    public void onFacultyChanged(FacultyChangedEvent event) {
+        synchronized (writeMonitor) {
+            changes++;
+            if (catalogue == null) {
+                return;
+            }
+            Map<Long, FacultySnapshot> byId = new HashMap<>(catalogue.byId);
+            if (event.after() != null) {
+                byId.put(event.id(), event.after());
+            } else {
+                byId.remove(event.id());
+            }
+            catalogue = new Catalogue(byId.values());
+        }
+    }
+
+    /**
+     * Adds faculties read from the table that the catalogue does not know yet, typically ones
+     * another instance created since the last refresh. Counted as a change, so a refresh whose
+     * query ran before the addition reads the table again instead of dropping it.
+     */
+    private void remember(List<FacultySnapshot> faculties) {
+        if (faculties.isEmpty()) {
+            return;
+        }
+        synchronized (writeMonitor) {
+            changes++;
+            if (catalogue == null) {
+                return;
+            }
+            Map<Long, FacultySnapshot> byId = new HashMap<>(catalogue.byId);
+            faculties.forEach(faculty -> byId.putIfAbsent(faculty.id(), faculty));
+            if (byId.size() != catalogue.byId.size()) {
+                catalogue = new Catalogue(byId.values());
+            }
+        }
+    }
+
+    /**
+     * Replaces the catalogue with the rows of the table. The result is only taken if no
+     * change event arrived while the query ran, otherwise the query is repeated; after a few
+     * contended attempts the last result is taken anyway and the next refresh corrects it.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${faculty.catalogue.refresh-interval:PT5M}",
+            fixedDelayString = "${faculty.catalogue.refresh-interval:PT5M}")
+    public void refresh() {
+        for (int attempt = 1; ; attempt++) {
+            long seen;
+            synchronized (writeMonitor) {
+                seen = changes;
+            }
+            List<FacultySnapshot> faculties = facultyRepository.findAllSnapshots();
+            synchronized (writeMonitor) {
+                if (changes == seen || attempt == REFRESH_ATTEMPTS) {
+                    if (catalogue != null && catalogue.byId.size() != faculties.size()) {
+                        log.info("Faculty catalogue drifted: {} -> {} faculties", catalogue.byId.size(), faculties.size());
+                    }
+                    catalogue = new Catalogue(faculties);
+                    return;
+                }
+            }
+        }
+    }
+
+    private static String normalize(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Catalogue {
+
+        private final Map<Long, FacultySnapshot> byId;
+        private final Map<String, List<Long>> byName;
+        private final Map<String, List<Long>> byColor;
+
+        private Catalogue(Collection<FacultySnapshot> faculties) {
+            Map<Long, FacultySnapshot> ids = new HashMap<>();
+            Map<String, List<Long>> names = new HashMap<>();
+            Map<String, List<Long>> colors = new HashMap<>();
+            faculties.stream()
+                    .sorted(Comparator.comparing(FacultySnapshot::id))
+                    .forEach(faculty -> {
+                        ids.put(faculty.id(), faculty);
+                        index(names, faculty.name(), faculty.id());
+                        index(colors, faculty.color(), faculty.id());
+                    });
+            this.byId = Map.copyOf(ids);
+            this.byName = freeze(names);
+            this.byColor = freeze(colors);
+        }
+
+        private static void index(Map<String, List<Long>> index, String value, Long id) {
+            if (value != null) {
+                index.computeIfAbsent(normalize(value), key -> new ArrayList<>()).add(id);
+            }
+        }
+
+        private static Map<String, List<Long>> freeze(Map<String, List<Long>> index) {
+            Map<String, List<Long>> frozen = new HashMap<>();
+            index.forEach((key, ids) -> frozen.put(key, List.copyOf(ids)));
+            return Map.copyOf(frozen);
+        }
+    }
+}
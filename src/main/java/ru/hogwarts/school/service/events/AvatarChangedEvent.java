@@ -0,0 +1,8 @@
+package ru.hogwarts.school.service.events;
+
+/**
+ * Published after an avatar has been attached to or removed from a student and the change
+ * has committed.
+ */
+public record AvatarChangedEvent(Long studentId) {
+}
@@ -0,0 +1,130 @@
+package ru.hogwarts.school.service.events;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.*;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import ru.hogwarts.school.model.Avatar;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+
+/**
+ * Turns committed Hibernate writes of {@link Student} and {@link Faculty} into
+ * {@link StudentChangedEvent}s and {@link FacultyChangedEvent}s, and avatar inserts and
+ * deletes into {@link AvatarChangedEvent}s. The listeners run after the transaction commits, so in-memory views built from these
+ * events never see rolled back data, whichever service or repository did the write.
+ */
+@Component
+public class EntityChangePublisher implements PostCommitInsertEventListener,
+        PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private final ApplicationEventPublisher publisher;
+
+    public EntityChangePublisher(EntityManagerFactory entityManagerFactory, ApplicationEventPublisher publisher) {
+        this.publisher = publisher;
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .requireService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        Class<?> type = persister.getMappedClass();
+        return type == Student.class || type == Faculty.class || type == Avatar.class;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Student) {
+            publisher.publishEvent(new StudentChangedEvent(null,
+                    snapshot(event.getId(), event.getState(), event.getPersister())));
+        } else if (event.getEntity() instanceof Faculty) {
+            publisher.publishEvent(new FacultyChangedEvent(null,
+                    facultySnapshot(event.getId(), event.getState(), event.getPersister())));
+        } else if (event.getEntity() instanceof Avatar avatar && avatar.getStudent() != null) {
+            publisher.publishEvent(new AvatarChangedEvent(avatar.getStudent().getId()));
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof Student) {
+            StudentSnapshot after = snapshot(event.getId(), event.getState(), event.getPersister());
+            StudentSnapshot before = event.getOldState() != null
+                    ? snapshot(event.getId(), event.getOldState(), event.getPersister())
+                    : after;
+            publisher.publishEvent(new StudentChangedEvent(before, after));
+        } else if (event.getEntity() instanceof Faculty) {
+            FacultySnapshot after = facultySnapshot(event.getId(), event.getState(), event.getPersister());
+            FacultySnapshot before = event.getOldState() != null
+                    ? facultySnapshot(event.getId(), event.getOldState(), event.getPersister())
+                    : after;
+            publisher.publishEvent(new FacultyChangedEvent(before, after));
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Student) {
+            publisher.publishEvent(new StudentChangedEvent(
+                    snapshot(event.getId(), event.getDeletedState(), event.getPersister()), null));
+        } else if (event.getEntity() instanceof Faculty) {
+            publisher.publishEvent(new FacultyChangedEvent(
+                    facultySnapshot(event.getId(), event.getDeletedState(), event.getPersister()), null));
+        } else if (event.getEntity() instanceof Avatar avatar && avatar.getStudent() != null) {
+            publisher.publishEvent(new AvatarChangedEvent(avatar.getStudent().getId()));
+        }
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    private static StudentSnapshot snapshot(Object id, Object[] state, EntityPersister persister) {
+        String[] properties = persister.getPropertyNames();
+        String name = null;
+        int age = 0;
+        Long facultyId = null;
+        Long version = null;
+        for (int i = 0; i < properties.length; i++) {
+            switch (properties[i]) {
+                case "name" -> name = (String) state[i];
+                case "age" -> age = state[i] != null ? (Integer) state[i] : 0;
+                case "faculty" -> facultyId = state[i] != null ? ((Faculty) state[i]).getId() : null;
+                case "version" -> version = (Long) state[i];
+                default -> {
+                }
+            }
+        }
+        return new StudentSnapshot((Long) id, name, age, facultyId, version);
+    }
+
+    private static FacultySnapshot facultySnapshot(Object id, Object[] state, EntityPersister persister) {
+        String[] properties = persister.getPropertyNames();
+        String name = null;
+        String color = null;
+        for (int i = 0; i < properties.length; i++) {
+            switch (properties[i]) {
+                case "name" -> name = (String) state[i];
+                case "color" -> color = (String) state[i];
+                default -> {
+                }
+            }
+        }
+        return new FacultySnapshot((Long) id, name, color);
+    }
+}
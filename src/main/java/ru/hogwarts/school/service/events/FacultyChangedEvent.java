@@ -0,0 +1,12 @@
+package ru.hogwarts.school.service.events;
+
+/**
+ * Published after a faculty insert, update or delete has committed. {@code before} is
+ * {@code null} for inserts and {@code after} is {@code null} for deletes.
+ */
+public record FacultyChangedEvent(FacultySnapshot before, FacultySnapshot after) {
+
+    public Long id() {
+        return after != null ? after.id() : before.id();
+    }
+}
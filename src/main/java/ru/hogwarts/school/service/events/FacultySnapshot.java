@@ -0,0 +1,4 @@
+package ru.hogwarts.school.service.events;
+
+public record FacultySnapshot(Long id, String name, String color) {
+}
@@ -0,0 +1,99 @@
+package ru.hogwarts.school.service.events;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * In-memory structure derived from the student table and kept current by committed
+ * {@link StudentChangedEvent}s. Events that arrive while a rebuild reads the table are queued
+ * and replayed onto the new structure before it replaces the old one, so applying an event
+ * must be idempotent.
+ */
+@Slf4j
+public class StudentReplica<T> {
+
+    private final String description;
+    private final BiConsumer<T, StudentChangedEvent> applier;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object rebuildMonitor = new Object();
+    private T current;
+    private List<StudentChangedEvent> pending;
+
+    public StudentReplica(String description, PlatformTransactionManager transactionManager,
+                          BiConsumer<T, StudentChangedEvent> applier) {
+        this.description = description;
+        this.applier = applier;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Runs the reader under the read lock, or returns {@code null} until the first build.
+     */
+    public <R> R read(Function<T, R> reader) {
+        lock.readLock().lock();
+        try {
+            return current == null ? null : reader.apply(current);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void apply(StudentChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (pending != null) {
+                pending.add(event);
+            }
+            if (current != null) {
+                applier.accept(current, event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Builds a fresh structure in a read-only transaction and swaps it in. On failure the
+     * previous one, if any, stays in place.
+     */
+    public void rebuild(Supplier<T> loader) {
+        synchronized (rebuildMonitor) {
+            lock.writeLock().lock();
+            try {
+                pending = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            try {
+                T fresh = readOnlyTransaction.execute(status -> loader.get());
+                lock.writeLock().lock();
+                try {
+                    pending.forEach(event -> applier.accept(fresh, event));
+                    current = fresh;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            } catch (RuntimeException e) {
+                log.warn("Unable to build the {}", description, e);
+            } finally {
+                lock.writeLock().lock();
+                try {
+                    pending = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,4 @@
+package ru.hogwarts.school.service.events;
+
+public record StudentSnapshot(Long id, String name, int age, Long facultyId, Long version) {
+}
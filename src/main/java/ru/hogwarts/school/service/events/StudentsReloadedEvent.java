@@ -0,0 +1,9 @@
+package ru.hogwarts.school.service.events;
+
+/**
+ * Published after students were written in bulk outside of Hibernate, so listeners that
+ * mirror the table must reload it instead of waiting for per-row events. Published off the
+ * writing thread once the write has committed.
+ */
+public record StudentsReloadedEvent() {
+}
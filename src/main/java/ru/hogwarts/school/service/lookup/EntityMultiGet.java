@@ -0,0 +1,124 @@
+package ru.hogwarts.school.service.lookup;
+
+import jakarta.persistence.EntityGraph;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.BatchSize;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.model.dto.MultiGetResponse;
+
+import java.util.*;
+
+/**
+ * Resolves id lists with Hibernate's multi-load. Ids already in the second-level cache are
+ * served from it, the rest are read with one statement per chunk of
+ * {@code entity.multi-get.chunk-size} ids. On PostgreSQL that statement is
+ * {@code id = any(?)} with the ids bound as one array, so every chunk shares one statement
+ * shape; other dialects get an {@code IN} list. Results keep the order of the first
+ * occurrence of each requested id; ids with no row are reported as missing.
+ */
+@Component
+public class EntityMultiGet {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final int chunkSize;
+    private final int maxIds;
+
+    public EntityMultiGet(@Value("${entity.multi-get.chunk-size:500}") int chunkSize,
+                          @Value("${entity.multi-get.max-ids:5000}") int maxIds) {
+        this.chunkSize = chunkSize;
+        this.maxIds = maxIds;
+    }
+
+    public MultiGetResponse<Student> findStudents(List<Long> ids) {
+        List<Long> distinct = distinct(ids);
+        return collect(distinct, session().findMultiple(Student.class, distinct, new BatchSize(chunkSize)));
+    }
+
+    /**
+     * Students for an internal id list of any length, in the given order and without the
+     * per-request limit; ids with no row are skipped. Chunks of {@code chunk-size} ids are
+     * loaded only as the result is iterated, and a chunk is detached once the iteration moves
+     * past it, so a serializer writes the result with one chunk in memory at a time. Iterate
+     * it while the persistence context is open; controllers returning it rely on
+     * {@code spring.jpa.open-in-view}, which is enabled explicitly.
+     */
+    public Iterable<Student> streamStudents(long[] ids) {
+        return () -> new Iterator<>() {
+            private int next;
+            private List<Student> loaded = List.of();
+            private Iterator<Student> chunk = loaded.iterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!chunk.hasNext() && next < ids.length) {
+                    loaded.forEach(entityManager::detach);
+                    int end = Math.min(ids.length, next + chunkSize);
+                    List<Long> chunkIds = Arrays.stream(ids, next, end).boxed().toList();
+                    next = end;
+                    loaded = session().findMultiple(Student.class, chunkIds, new BatchSize(chunkSize)).stream()
+                            .filter(Objects::nonNull)
+                            .toList();
+                    chunk = loaded.iterator();
+                }
+                return chunk.hasNext();
+            }
+
+            @Override
+            public Student next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return chunk.next();
+            }
+        };
+    }
+
+    /**
+     * Loads faculties together with their rosters, which the faculty representation carries.
+     */
+    public MultiGetResponse<Faculty> findFaculties(List<Long> ids) {
+        List<Long> distinct = distinct(ids);
+        EntityGraph<Faculty> withStudents = entityManager.createEntityGraph(Faculty.class);
+        withStudents.addAttributeNode("students");
+        return collect(distinct, session().findMultiple(withStudents, distinct, new BatchSize(chunkSize)));
+    }
+
+    private List<Long> distinct(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At least one id is required");
+        }
+        if (ids.size() > maxIds) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + maxIds + " ids per request");
+        }
+        if (ids.stream().anyMatch(Objects::isNull)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Ids must not be empty");
+        }
+        return new ArrayList<>(new LinkedHashSet<>(ids));
+    }
+
+    private static <T> MultiGetResponse<T> collect(List<Long> ids, List<T> loaded) {
+        List<T> found = new ArrayList<>(ids.size());
+        List<Long> missing = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            if (loaded.get(i) != null) {
+                found.add(loaded.get(i));
+            } else {
+                missing.add(ids.get(i));
+            }
+        }
+        return new MultiGetResponse<>(found, missing);
+    }
+
+    private Session session() {
+        return entityManager.unwrap(Session.class);
+    }
+}
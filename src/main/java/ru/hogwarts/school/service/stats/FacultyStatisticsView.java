@@ -0,0 +1,150 @@
+package ru.hogwarts.school.service.stats;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.hogwarts.school.model.dto.FacultyStatistics;
+import ru.hogwarts.school.model.dto.FacultyStatisticsRow;
+import ru.hogwarts.school.repository.FacultyRepository;
+import ru.hogwarts.school.repository.StudentsRepository;
+import ru.hogwarts.school.service.events.*;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Per-faculty student statistics materialized in memory. Committed student, faculty and
+ * avatar changes only mark the affected faculties dirty; a background refresh every
+ * {@code faculty.statistics.refresh-interval} recomputes just those faculties with one
+ * grouped query and swaps in a new copy of the view, so reads cost one map lookup per
+ * faculty and never touch the student table. Each entry carries the time it was computed.
+ */
+@Slf4j
+@Component
+public class FacultyStatisticsView {
+
+    @Autowired
+    private StudentsRepository studentsRepository;
+
+    @Autowired
+    private FacultyRepository facultyRepository;
+
+    private final Set<Long> dirtyFaculties = ConcurrentHashMap.newKeySet();
+    private final Set<Long> dirtyStudents = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean fullRefreshPending = new AtomicBoolean(true);
+    private volatile Map<Long, FacultyStatistics> statistics;
+
+    public List<FacultyStatistics> all() {
+        return List.copyOf(current().values());
+    }
+
+    public Optional<FacultyStatistics> find(Long facultyId) {
+        return Optional.ofNullable(current().get(facultyId));
+    }
+
+    @EventListener
+    public void onStudentChanged(StudentChangedEvent event) {
+        if (event.before() != null && event.before().facultyId() != null) {
+            dirtyFaculties.add(event.before().facultyId());
+        }
+        if (event.after() != null && event.after().facultyId() != null) {
+            dirtyFaculties.add(event.after().facultyId());
+        }
+    }
+
+    @EventListener
+    public void onFacultyChanged(FacultyChangedEvent event) {
+        dirtyFaculties.add(event.id());
+    }
+
+    @EventListener
+    public void onAvatarChanged(AvatarChangedEvent event) {
+        dirtyStudents.add(event.studentId());
+    }
+
+    @EventListener(StudentsReloadedEvent.class)
+    public void onStudentsReloaded() {
+        fullRefreshPending.set(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        refresh();
+    }
+
+    /**
+     * Recomputes the dirty faculties, or every faculty after startup and bulk reloads. Marks
+     * taken by a refresh that fails are put back for the next run.
+     */
+    @Scheduled(initialDelayString = "${faculty.statistics.refresh-interval:PT5S}",
+            fixedDelayString = "${faculty.statistics.refresh-interval:PT5S}")
+    public synchronized void refresh() {
+        boolean full = fullRefreshPending.getAndSet(false) || statistics == null;
+        Set<Long> faculties = drain(dirtyFaculties);
+        Set<Long> students = drain(dirtyStudents);
+        if (!full && faculties.isEmpty() && students.isEmpty()) {
+            return;
+        }
+        try {
+            if (full) {
+                statistics = build(new TreeMap<>(), facultyRepository.findAllSnapshots(),
+                        studentsRepository.findAllFacultyStatistics());
+            } else {
+                if (!students.isEmpty()) {
+                    faculties.addAll(studentsRepository.findFacultyIdsOf(students));
+                }
+                if (faculties.isEmpty()) {
+                    return;
+                }
+                TreeMap<Long, FacultyStatistics> next = new TreeMap<>(statistics);
+                faculties.forEach(next::remove);
+                statistics = build(next, facultyRepository.findSnapshotsByIdIn(faculties),
+                        studentsRepository.findFacultyStatistics(faculties));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Unable to refresh faculty statistics", e);
+            dirtyFaculties.addAll(faculties);
+            dirtyStudents.addAll(students);
+            if (full) {
+                fullRefreshPending.set(true);
+            }
+        }
+    }
+
+    private Map<Long, FacultyStatistics> current() {
+        if (statistics == null) {
+            refresh();
+        }
+        return statistics != null ? statistics : Map.of();
+    }
+
+    private static Map<Long, FacultyStatistics> build(TreeMap<Long, FacultyStatistics> target,
+                                                      List<FacultySnapshot> faculties,
+                                                      List<FacultyStatisticsRow> rows) {
+        Instant refreshedAt = Instant.now();
+        Map<Long, FacultyStatisticsRow> byFaculty = new HashMap<>();
+        rows.forEach(row -> byFaculty.put(row.facultyId(), row));
+        for (FacultySnapshot faculty : faculties) {
+            FacultyStatisticsRow row = byFaculty.getOrDefault(faculty.id(),
+                    new FacultyStatisticsRow(faculty.id(), 0, null, null, null, 0));
+            double coverage = row.students() == 0 ? 0 : (double) row.studentsWithAvatar() / row.students();
+            target.put(faculty.id(), new FacultyStatistics(faculty.id(), faculty.name(), row.students(),
+                    row.averageAge(), row.minAge(), row.maxAge(), row.studentsWithAvatar(), coverage, refreshedAt));
+        }
+        return Collections.unmodifiableMap(target);
+    }
+
+    private static Set<Long> drain(Set<Long> marks) {
+        Set<Long> drained = new HashSet<>();
+        for (Iterator<Long> iterator = marks.iterator(); iterator.hasNext(); ) {
+            drained.add(iterator.next());
+            iterator.remove();
+        }
+        return drained;
+    }
+}
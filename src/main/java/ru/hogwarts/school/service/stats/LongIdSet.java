@@ -0,0 +1,63 @@
+package ru.hogwarts.school.service.stats;
+
+import java.util.Arrays;
+
+/**
+ * Sorted set of primitive ids backed by a single growable array. Ids handed out by the
+ * sequence mostly arrive in ascending order, so adds are usually appends; lookups and
+ * removals are binary searches. Not thread-safe.
+ */
+final class LongIdSet {
+
+    private static final long[] EMPTY = new long[0];
+
+    private long[] ids = EMPTY;
+    private int size;
+
+    boolean add(long id) {
+        if (size == 0 || id > ids[size - 1]) {
+            ensureCapacity();
+            ids[size++] = id;
+            return true;
+        }
+        int index = Arrays.binarySearch(ids, 0, size, id);
+        if (index >= 0) {
+            return false;
+        }
+        int insertAt = -index - 1;
+        ensureCapacity();
+        System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+        ids[insertAt] = id;
+        size++;
+        return true;
+    }
+
+    boolean remove(long id) {
+        int index = Arrays.binarySearch(ids, 0, size, id);
+        if (index < 0) {
+            return false;
+        }
+        System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+        size--;
+        return true;
+    }
+
+    boolean contains(long id) {
+        return Arrays.binarySearch(ids, 0, size, id) >= 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int copyTo(long[] target, int offset) {
+        System.arraycopy(ids, 0, target, offset, size);
+        return offset + size;
+    }
+
+    private void ensureCapacity() {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, Math.max(8, size + (size >> 1)));
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package ru.hogwarts.school.service.stats;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import ru.hogwarts.school.repository.StudentsRepository;
+import ru.hogwarts.school.service.events.StudentChangedEvent;
+import ru.hogwarts.school.service.events.StudentSnapshot;
+import ru.hogwarts.school.service.events.StudentsReloadedEvent;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The most recently created students, held in a fixed-size ring of snapshots and kept
+ * current by committed change events. Writers claim slots with an atomic counter and swap
+ * entries with compare-and-set, readers copy the ring without locking, so the latest
+ * students are served without a query.
+ * <p>
+ * The ring holds {@code student.recent.capacity} entries, twice the largest page it serves
+ * by default, so deletes can open gaps without hiding anyone. When deletes leave fewer live
+ * entries than the largest page while older students exist outside the ring, the ring is
+ * reseeded from the table.
+ */
+@Component
+public class RecentStudents {
+
+    @Autowired
+    private StudentsRepository studentsRepository;
+
+    private final int capacity;
+    private final int maxPage;
+    private final AtomicReference<Ring> ring = new AtomicReference<>();
+
+    public RecentStudents(@Value("${student.recent.capacity:100}") int capacity,
+                          @Value("${student.recent.max-page:50}") int maxPage) {
+        this.capacity = capacity;
+        this.maxPage = Math.min(maxPage, capacity);
+    }
+
+    public int maxPage() {
+        return maxPage;
+    }
+
+    /**
+     * Returns up to {@code n} of the latest students, newest first, or {@code null} until
+     * the ring has been seeded.
+     */
+    public List<StudentSnapshot> latest(int n) {
+        Ring current = ring.get();
+        return current != null ? current.latest(n) : null;
+    }
+
+    @EventListener
+    public void onStudentChanged(StudentChangedEvent event) {
+        Ring current = ring.get();
+        if (current == null) {
+            return;
+        }
+        if (event.before() == null) {
+            current.add(event.after());
+        } else if (event.after() == null) {
+            if (current.remove(event.before().id()) && !current.complete && current.live.get() < maxPage) {
+                reseed();
+            }
+        } else {
+            current.replace(event.after());
+        }
+    }
+
+    /**
+     * Replaces the ring with the newest rows of the table. Students created while the query
+     * runs land in the old ring and are carried over; a delete in that window can leave a
+     * stale entry until the next reseed.
+     */
+    @EventListener({ApplicationReadyEvent.class, StudentsReloadedEvent.class})
+    public void reseed() {
+        List<StudentSnapshot> newest = studentsRepository.findLatestSnapshots(Limit.of(capacity));
+        Ring fresh = new Ring(capacity);
+        for (int i = newest.size() - 1; i >= 0; i--) {
+            fresh.add(newest.get(i));
+        }
+        fresh.complete = newest.size() < capacity;
+        Ring previous = ring.getAndSet(fresh);
+        if (previous != null) {
+            long newestSeeded = newest.isEmpty() ? Long.MIN_VALUE : newest.get(0).id();
+            previous.latest(capacity).stream()
+                    .filter(snapshot -> snapshot.id() > newestSeeded)
+                    .sorted(Comparator.comparing(StudentSnapshot::id))
+                    .forEach(fresh::add);
+        }
+    }
+
+    private static final class Ring {
+
+        private final AtomicReferenceArray<StudentSnapshot> slots;
+        private final AtomicLong next = new AtomicLong();
+        private final AtomicInteger live = new AtomicInteger();
+        // Whether the ring holds every student; once an add overwrites a live entry, older
+        // students exist that only the table knows about.
+        private volatile boolean complete = true;
+
+        private Ring(int capacity) {
+            this.slots = new AtomicReferenceArray<>(capacity);
+        }
+
+        private void add(StudentSnapshot snapshot) {
+            int slot = (int) (next.getAndIncrement() % slots.length());
+            if (slots.getAndSet(slot, snapshot) == null) {
+                live.incrementAndGet();
+            } else {
+                complete = false;
+            }
+        }
+
+        private void replace(StudentSnapshot snapshot) {
+            for (int slot = 0; slot < slots.length(); slot++) {
+                StudentSnapshot current = slots.get(slot);
+                if (current != null && current.id().equals(snapshot.id())) {
+                    slots.compareAndSet(slot, current, snapshot);
+                    return;
+                }
+            }
+        }
+
+        private boolean remove(Long id) {
+            for (int slot = 0; slot < slots.length(); slot++) {
+                StudentSnapshot current = slots.get(slot);
+                if (current != null && current.id().equals(id)) {
+                    if (slots.compareAndSet(slot, current, null)) {
+                        live.decrementAndGet();
+                        return true;
+                    }
+                    return false;
+                }
+            }
+            return false;
+        }
+
+        private List<StudentSnapshot> latest(int n) {
+            List<StudentSnapshot> snapshots = new ArrayList<>(slots.length());
+            for (int slot = 0; slot < slots.length(); slot++) {
+                StudentSnapshot snapshot = slots.get(slot);
+                if (snapshot != null) {
+                    snapshots.add(snapshot);
+                }
+            }
+            snapshots.sort(Comparator.comparing(StudentSnapshot::id).reversed());
+            return snapshots.size() > n ? snapshots.subList(0, n) : snapshots;
+        }
+    }
+}
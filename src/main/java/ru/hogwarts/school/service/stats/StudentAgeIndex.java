@@ -0,0 +1,113 @@
+package ru.hogwarts.school.service.stats;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.hogwarts.school.model.dto.StudentAge;
+import ru.hogwarts.school.model.dto.StudentAgeCount;
+import ru.hogwarts.school.repository.StudentsRepository;
+import ru.hogwarts.school.service.events.StudentChangedEvent;
+import ru.hogwarts.school.service.events.StudentReplica;
+import ru.hogwarts.school.service.events.StudentSnapshot;
+import ru.hogwarts.school.service.events.StudentsReloadedEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Student ids bucketed by age, one primitive sorted id set per age between 0 and
+ * {@code student.age-index.max-age}, kept as a {@link StudentReplica}. Lookups return
+ * {@code null} when the index cannot answer (not built yet, or the range reaches outside the
+ * indexed ages) and callers fall back to the database.
+ */
+@Component
+public class StudentAgeIndex {
+
+    @Autowired
+    private StudentsRepository studentsRepository;
+
+    private final StudentReplica<LongIdSet[]> byAge;
+    private final int maxAge;
+
+    public StudentAgeIndex(PlatformTransactionManager transactionManager,
+                           @Value("${student.age-index.max-age:150}") int maxAge) {
+        this.byAge = new StudentReplica<>("student age index", transactionManager, StudentAgeIndex::apply);
+        this.maxAge = maxAge;
+    }
+
+    public long[] findIds(int minAge, int maxAge) {
+        if (minAge < 0 || maxAge > this.maxAge || minAge > maxAge) {
+            return null;
+        }
+        return byAge.read(buckets -> {
+            int total = 0;
+            for (int age = minAge; age <= maxAge; age++) {
+                total += buckets[age].size();
+            }
+            long[] ids = new long[total];
+            int offset = 0;
+            for (int age = minAge; age <= maxAge; age++) {
+                offset = buckets[age].copyTo(ids, offset);
+            }
+            return ids;
+        });
+    }
+
+    public List<StudentAgeCount> histogram() {
+        return byAge.read(buckets -> {
+            List<StudentAgeCount> histogram = new ArrayList<>();
+            for (int age = 0; age < buckets.length; age++) {
+                if (buckets[age].size() > 0) {
+                    histogram.add(new StudentAgeCount(age, buckets[age].size()));
+                }
+            }
+            return histogram;
+        });
+    }
+
+    @EventListener
+    public void onStudentChanged(StudentChangedEvent event) {
+        byAge.apply(event);
+    }
+
+    @EventListener({ApplicationReadyEvent.class, StudentsReloadedEvent.class})
+    public void rebuild() {
+        byAge.rebuild(() -> {
+            LongIdSet[] fresh = new LongIdSet[maxAge + 1];
+            for (int age = 0; age <= maxAge; age++) {
+                fresh[age] = new LongIdSet();
+            }
+            try (Stream<StudentAge> rows = studentsRepository.streamAges()) {
+                rows.forEach(row -> add(fresh, row.id(), row.age()));
+            }
+            return fresh;
+        });
+    }
+
+    private static void apply(LongIdSet[] buckets, StudentChangedEvent event) {
+        StudentSnapshot before = event.before();
+        StudentSnapshot after = event.after();
+        if (before != null) {
+            remove(buckets, before.id(), before.age());
+        }
+        if (after != null) {
+            add(buckets, after.id(), after.age());
+        }
+    }
+
+    private static void add(LongIdSet[] buckets, long id, int age) {
+        if (age >= 0 && age < buckets.length) {
+            buckets[age].add(id);
+        }
+    }
+
+    private static void remove(LongIdSet[] buckets, long id, int age) {
+        if (age >= 0 && age < buckets.length) {
+            buckets[age].remove(id);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package ru.hogwarts.school.service.stats;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.hogwarts.school.model.dto.StudentTotals;
+import ru.hogwarts.school.repository.StudentsRepository;
+import ru.hogwarts.school.service.events.StudentChangedEvent;
+import ru.hogwarts.school.service.events.StudentsReloadedEvent;
+
+/**
+ * Student count and age sum kept in memory and moved by the deltas of committed changes,
+ * so quantity and average age are answered without touching the table. A periodic
+ * reconciliation replaces the totals with a fresh aggregate query to repair any drift,
+ * for example from writes made by another instance or directly in the database.
+ */
+@Slf4j
+@Component
+public class StudentAggregates {
+
+    private static final int RECONCILE_ATTEMPTS = 3;
+
+    @Autowired
+    private StudentsRepository studentsRepository;
+
+    private final Object lock = new Object();
+    private long count;
+    private long ageSum;
+    private long changes;
+    private boolean initialized;
+
+    public long count() {
+        ensureInitialized();
+        synchronized (lock) {
+            return count;
+        }
+    }
+
+    public Double averageAge() {
+        ensureInitialized();
+        synchronized (lock) {
+            return count == 0 ? null : (double) ageSum / count;
+        }
+    }
+
+    @EventListener
+    public void onStudentChanged(StudentChangedEvent event) {
+        synchronized (lock) {
+            changes++;
+            if (!initialized) {
+                return;
+            }
+            if (event.before() != null) {
+                count--;
+                ageSum -= event.before().age();
+            }
+            if (event.after() != null) {
+                count++;
+                ageSum += event.after().age();
+            }
+        }
+    }
+
+    @EventListener({ApplicationReadyEvent.class, StudentsReloadedEvent.class})
+    public void onReload() {
+        reconcile();
+    }
+
+    /**
+     * Replaces the totals with the result of an aggregate query. The result is only taken
+     * if no change event arrived while the query ran, otherwise the query is repeated; after
+     * a few contended attempts the last result is taken anyway and the next run corrects it.
+     */
+    @Scheduled(initialDelayString = "${student.aggregates.reconcile-interval:PT5M}",
+            fixedDelayString = "${student.aggregates.reconcile-interval:PT5M}")
+    public void reconcile() {
+        for (int attempt = 1; ; attempt++) {
+            long seen;
+            synchronized (lock) {
+                seen = changes;
+            }
+            StudentTotals totals = studentsRepository.findStudentTotals();
+            synchronized (lock) {
+                if (changes == seen || attempt == RECONCILE_ATTEMPTS) {
+                    if (initialized && (count != totals.count() || ageSum != totals.ageSum())) {
+                        log.info("Student aggregates drifted: count {} -> {}, age sum {} -> {}",
+                                count, totals.count(), ageSum, totals.ageSum());
+                    }
+                    count = totals.count();
+                    ageSum = totals.ageSum();
+                    initialized = true;
+                    return;
+                }
+            }
+        }
+    }
+
+    private void ensureInitialized() {
+        boolean ready;
+        synchronized (lock) {
+            ready = initialized;
+        }
+        if (!ready) {
+            reconcile();
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package ru.hogwarts.school.service.stats;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.hogwarts.school.repository.StudentsRepository;
+import ru.hogwarts.school.service.events.StudentChangedEvent;
+import ru.hogwarts.school.service.events.StudentReplica;
+import ru.hogwarts.school.service.events.StudentSnapshot;
+import ru.hogwarts.school.service.events.StudentsReloadedEvent;
+
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Case-insensitive name search over all students, kept as a {@link StudentReplica}.
+ * Lower-cased names are kept in a sorted map for exact and prefix matches, and every distinct
+ * three-character window of a name points to a sorted id set, so a substring query only
+ * verifies the students that share all of its trigrams. Queries shorter than a trigram are
+ * answered only when exact and prefix matches fill the limit; otherwise the substring matches
+ * are left to the database.
+ */
+@Component
+public class StudentNameIndex {
+
+    /**
+     * Shortest query the index matches inside names: one trigram.
+     */
+    public static final int MIN_INFIX_LENGTH = 3;
+
+    private static final Comparator<Indexed> NAME_ORDER = Comparator.comparing(Indexed::name)
+            .thenComparing(indexed -> indexed.student().id());
+
+    @Autowired
+    private StudentsRepository studentsRepository;
+
+    private final StudentReplica<Names> names;
+    private final int maxResults;
+
+    public StudentNameIndex(PlatformTransactionManager transactionManager,
+                            @Value("${student.search.max-results:100}") int maxResults) {
+        this.names = new StudentReplica<>("student name index", transactionManager, Names::apply);
+        this.maxResults = maxResults;
+    }
+
+    public int maxResults() {
+        return maxResults;
+    }
+
+    /**
+     * Up to {@code limit} students whose name contains {@code query} ignoring case: exact
+     * matches first, then prefix matches, then the rest, each ordered by lower-cased name and id.
+     * Returns {@code null} before the index is built, and for queries shorter than
+     * {@link #MIN_INFIX_LENGTH} whose exact and prefix matches do not fill the limit.
+     */
+    public List<StudentSnapshot> search(String query, int limit) {
+        String key = query.toLowerCase(Locale.ROOT);
+        return names.read(index -> index.search(key, limit));
+    }
+
+    @EventListener
+    public void onStudentChanged(StudentChangedEvent event) {
+        names.apply(event);
+    }
+
+    @EventListener({ApplicationReadyEvent.class, StudentsReloadedEvent.class})
+    public void rebuild() {
+        names.rebuild(() -> {
+            Names fresh = new Names();
+            try (Stream<StudentSnapshot> rows = studentsRepository.streamSnapshots()) {
+                rows.forEach(fresh::add);
+            }
+            return fresh;
+        });
+    }
+
+    private static final class Names {
+
+        private final Map<Long, Indexed> students = new HashMap<>();
+        private final NavigableMap<String, LongIdSet> byName = new TreeMap<>();
+        private final Map<Long, LongIdSet> byTrigram = new HashMap<>();
+
+        private void apply(StudentChangedEvent event) {
+            if (event.before() != null) {
+                remove(event.before().id());
+            }
+            if (event.after() != null) {
+                add(event.after());
+            }
+        }
+
+        private void add(StudentSnapshot student) {
+            remove(student.id());
+            String name = student.name() != null ? student.name().toLowerCase(Locale.ROOT) : null;
+            students.put(student.id(), new Indexed(student, name));
+            if (name == null) {
+                return;
+            }
+            byName.computeIfAbsent(name, key -> new LongIdSet()).add(student.id());
+            for (long trigram : trigrams(name)) {
+                byTrigram.computeIfAbsent(trigram, key -> new LongIdSet()).add(student.id());
+            }
+        }
+
+        private void remove(long id) {
+            Indexed student = students.remove(id);
+            if (student == null || student.name() == null) {
+                return;
+            }
+            removeFrom(byName, student.name(), id);
+            for (long trigram : trigrams(student.name())) {
+                removeFrom(byTrigram, trigram, id);
+            }
+        }
+
+        private List<StudentSnapshot> search(String key, int limit) {
+            List<StudentSnapshot> found = new ArrayList<>();
+            LongIdSet exact = byName.get(key);
+            if (exact != null) {
+                collect(exact, found, limit);
+            }
+            for (LongIdSet ids : byName.subMap(key, false, key + Character.MAX_VALUE, false).values()) {
+                if (found.size() >= limit) {
+                    return found;
+                }
+                collect(ids, found, limit);
+            }
+            if (found.size() < limit) {
+                if (key.length() < MIN_INFIX_LENGTH) {
+                    return null;
+                }
+                lookupInfixes(key, found, limit);
+            }
+            return found;
+        }
+
+        /**
+         * Verifies the students that share every trigram of the key, starting from the
+         * smallest posting list, and keeps only the first {@code limit - found.size()} matches
+         * in a bounded heap whose head is the worst match kept so far.
+         */
+        private void lookupInfixes(String key, List<StudentSnapshot> found, int limit) {
+            List<LongIdSet> postings = new ArrayList<>();
+            for (long trigram : trigrams(key)) {
+                LongIdSet ids = byTrigram.get(trigram);
+                if (ids == null) {
+                    return;
+                }
+                postings.add(ids);
+            }
+            postings.sort(Comparator.comparingInt(LongIdSet::size));
+            long[] candidates = new long[postings.get(0).size()];
+            postings.get(0).copyTo(candidates, 0);
+
+            int wanted = limit - found.size();
+            PriorityQueue<Indexed> best = new PriorityQueue<>(wanted, NAME_ORDER.reversed());
+            candidates:
+            for (long id : candidates) {
+                for (int i = 1; i < postings.size(); i++) {
+                    if (!postings.get(i).contains(id)) {
+                        continue candidates;
+                    }
+                }
+                Indexed student = students.get(id);
+                if (!isInfix(student.name(), key)) {
+                    continue;
+                }
+                if (best.size() < wanted) {
+                    best.add(student);
+                } else if (NAME_ORDER.compare(student, best.peek()) < 0) {
+                    best.poll();
+                    best.add(student);
+                }
+            }
+            Indexed[] matches = best.toArray(new Indexed[0]);
+            Arrays.sort(matches, NAME_ORDER);
+            for (Indexed match : matches) {
+                found.add(match.student());
+            }
+        }
+
+        private void collect(LongIdSet ids, List<StudentSnapshot> found, int limit) {
+            long[] sorted = new long[ids.size()];
+            ids.copyTo(sorted, 0);
+            for (int i = 0; i < sorted.length && found.size() < limit; i++) {
+                found.add(students.get(sorted[i]).student());
+            }
+        }
+
+        private static boolean isInfix(String name, String key) {
+            return !name.startsWith(key) && name.indexOf(key, 1) > 0;
+        }
+
+        private static <K> void removeFrom(Map<K, LongIdSet> index, K key, long id) {
+            LongIdSet ids = index.get(key);
+            if (ids != null && ids.remove(id) && ids.size() == 0) {
+                index.remove(key);
+            }
+        }
+
+        private static Set<Long> trigrams(String name) {
+            Set<Long> trigrams = new HashSet<>();
+            for (int i = 0; i + MIN_INFIX_LENGTH <= name.length(); i++) {
+                trigrams.add(((long) name.charAt(i) << 32) | ((long) name.charAt(i + 1) << 16) | name.charAt(i + 2));
+            }
+            return trigrams;
+        }
+    }
+
+    /**
+     * A student with its lower-cased name, {@code null} for unnamed students.
+     */
+    private record Indexed(StudentSnapshot student, String name) {
+    }
+}
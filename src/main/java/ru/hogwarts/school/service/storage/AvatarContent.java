@@ -0,0 +1,20 @@
+package ru.hogwarts.school.service.storage;
+
+import ru.hogwarts.school.model.AvatarStorage;
+
+import java.nio.file.Path;
+
+public record AvatarContent(AvatarStorage storage, AvatarFingerprint fingerprint, Path path, byte[] inlineData) {
+
+    public static AvatarContent inline(byte[] data) {
+        return new AvatarContent(AvatarStorage.INLINE, AvatarStreams.fingerprint(data), null, data);
+    }
+
+    public static AvatarContent file(StoredAvatar stored) {
+        return new AvatarContent(AvatarStorage.FILE, stored.fingerprint(), stored.path(), null);
+    }
+
+    public boolean inline() {
+        return storage == AvatarStorage.INLINE;
+    }
+}
@@ -0,0 +1,82 @@
+package ru.hogwarts.school.service.storage;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.hogwarts.school.repository.AvatarFileRepository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Reference counts of stored avatar files, one {@code avatar_file} row per checksum. Every
+ * store of a file takes a reference before it looks at the disk, and a release only deletes
+ * the file while it still holds the row lock of the decrement that reached zero, so a
+ * concurrent store of the same content either keeps the file alive or waits and writes it
+ * again. Both run in their own transaction, independent of the caller's.
+ */
+@Component
+public class AvatarFileReferences {
+
+    private static final int ACQUIRE_ATTEMPTS = 3;
+
+    @Autowired
+    private AvatarFileRepository avatarFileRepository;
+
+    private final TransactionTemplate transaction;
+
+    public AvatarFileReferences(PlatformTransactionManager transactionManager) {
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public void acquire(String checksum) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transaction.executeWithoutResult(status -> {
+                    if (avatarFileRepository.increment(checksum) == 0) {
+                        avatarFileRepository.insertFirst(checksum);
+                    }
+                });
+                return;
+            } catch (DataIntegrityViolationException e) {
+                // Another store inserted the first reference concurrently; the row exists now.
+                if (attempt == ACQUIRE_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops one reference and runs {@code onLastReference} if it was the last one, before the
+     * decrement commits. Checksums without a row were never counted and are left alone.
+     */
+    public boolean release(String checksum, FileAction onLastReference) throws IOException {
+        try {
+            return Boolean.TRUE.equals(transaction.execute(status -> {
+                if (avatarFileRepository.decrement(checksum) == 0
+                        || avatarFileRepository.findRefs(checksum).orElse(0L) > 0) {
+                    return false;
+                }
+                avatarFileRepository.deleteUnreferenced(checksum);
+                try {
+                    onLastReference.run();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return true;
+            }));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    @FunctionalInterface
+    public interface FileAction {
+        void run() throws IOException;
+    }
+}
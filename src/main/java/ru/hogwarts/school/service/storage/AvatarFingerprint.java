@@ -0,0 +1,16 @@
+package ru.hogwarts.school.service.storage;
+
+import org.springframework.http.MediaType;
+
+public record AvatarFingerprint(long size, String checksum, String sniffedMediaType) {
+
+    public String mediaTypeOr(String declaredMediaType) {
+        if (sniffedMediaType != null) {
+            return sniffedMediaType;
+        }
+        if (declaredMediaType != null && !declaredMediaType.isBlank()) {
+            return declaredMediaType;
+        }
+        return MediaType.APPLICATION_OCTET_STREAM_VALUE;
+    }
+}
@@ -0,0 +1,71 @@
+package ru.hogwarts.school.service.storage;
+
+import ru.hogwarts.school.model.dto.AvatarImportError;
+import ru.hogwarts.school.model.dto.AvatarImportState;
+import ru.hogwarts.school.model.dto.AvatarImportStatus;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Progress of one archive import. Counters are updated by the import workers while
+ * the status endpoint reads snapshots; only the first {@code maxErrors} failures keep
+ * their details, the rest are counted.
+ */
+public class AvatarImportJob {
+
+    private final UUID id = UUID.randomUUID();
+    private final int maxErrors;
+    private final AtomicInteger entries = new AtomicInteger();
+    private final AtomicInteger imported = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final ConcurrentLinkedQueue<AvatarImportError> errors = new ConcurrentLinkedQueue<>();
+    private volatile AvatarImportState state = AvatarImportState.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+
+    public AvatarImportJob(int maxErrors) {
+        this.maxErrors = maxErrors;
+    }
+
+    public UUID id() {
+        return id;
+    }
+
+    public void start() {
+        startedAt = Instant.now();
+        state = AvatarImportState.RUNNING;
+    }
+
+    public void entryRead() {
+        entries.incrementAndGet();
+    }
+
+    public void imported(int count) {
+        imported.addAndGet(count);
+    }
+
+    public void fail(String entry, String message) {
+        if (failed.incrementAndGet() <= maxErrors) {
+            errors.add(new AvatarImportError(entry, message));
+        }
+    }
+
+    public void finish(AvatarImportState finalState) {
+        finishedAt = Instant.now();
+        state = finalState;
+    }
+
+    public boolean finishedBefore(Instant instant) {
+        Instant finished = finishedAt;
+        return finished != null && finished.isBefore(instant);
+    }
+
+    public AvatarImportStatus status() {
+        return new AvatarImportStatus(id, state, entries.get(), imported.get(), failed.get(),
+                List.copyOf(errors), startedAt, finishedAt);
+    }
+}
@@ -0,0 +1,52 @@
+package ru.hogwarts.school.service.storage;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+import ru.hogwarts.school.repository.AvatarDataRepository;
+
+import javax.sql.DataSource;
+
+/**
+ * Frees the PostgreSQL large object behind {@code avatar_data.data}. Clearing the column or
+ * deleting the row only drops the OID, so the content would stay in {@code pg_largeobject}
+ * until vacuumlo runs. Other databases keep the blob in the row and need nothing.
+ */
+@Component
+public class AvatarLargeObjects {
+
+    @Autowired
+    private AvatarDataRepository avatarDataRepository;
+
+    private final DataSource dataSource;
+    private volatile Boolean largeObjects;
+
+    public AvatarLargeObjects(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Unlinks the large object of the avatar, if it has one, in the caller's transaction.
+     * Call it before the column is cleared or the row deleted.
+     */
+    public void unlink(Long avatarId) {
+        if (avatarId != null && usesLargeObjects()) {
+            avatarDataRepository.unlinkData(avatarId);
+        }
+    }
+
+    private boolean usesLargeObjects() {
+        Boolean supported = largeObjects;
+        if (supported == null) {
+            try {
+                supported = JdbcUtils.extractDatabaseMetaData(dataSource,
+                        metaData -> "PostgreSQL".equals(metaData.getDatabaseProductName()));
+            } catch (MetaDataAccessException e) {
+                supported = false;
+            }
+            largeObjects = supported;
+        }
+        return supported;
+    }
+}
@@ -0,0 +1,100 @@
+package ru.hogwarts.school.service.storage;
+
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Single-pass copy of avatar content: the bytes are written to the target channel
+ * while size, SHA-256 checksum and the media type sniffed from the magic number are
+ * computed on the same buffer. Memory use per copy is one reused direct buffer.
+ */
+public final class AvatarStreams {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int SNIFF_LENGTH = 12;
+    private static final ThreadLocal<ByteBuffer> BUFFERS =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(BUFFER_SIZE));
+
+    private AvatarStreams() {
+    }
+
+    public static AvatarFingerprint copy(InputStream in, WritableByteChannel out) throws IOException {
+        MessageDigest digest = sha256();
+        ReadableByteChannel source = Channels.newChannel(in);
+        ByteBuffer buffer = BUFFERS.get();
+        byte[] head = new byte[SNIFF_LENGTH];
+        int headLength = 0;
+        long size = 0;
+
+        buffer.clear();
+        while (source.read(buffer) != -1) {
+            buffer.flip();
+            int remaining = buffer.remaining();
+            if (headLength < SNIFF_LENGTH) {
+                int n = Math.min(SNIFF_LENGTH - headLength, remaining);
+                buffer.get(buffer.position(), head, headLength, n);
+                headLength += n;
+            }
+            digest.update(buffer.duplicate());
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            size += remaining;
+            buffer.clear();
+        }
+        return new AvatarFingerprint(size, HexFormat.of().formatHex(digest.digest()), sniffMediaType(head, headLength));
+    }
+
+    public static AvatarFingerprint fingerprint(byte[] content) {
+        String checksum = HexFormat.of().formatHex(sha256().digest(content));
+        return new AvatarFingerprint(content.length, checksum, sniffMediaType(content, content.length));
+    }
+
+    public static String sniffMediaType(byte[] head, int length) {
+        if (startsWith(head, length, 0, 0x89, 'P', 'N', 'G')) {
+            return MediaType.IMAGE_PNG_VALUE;
+        }
+        if (startsWith(head, length, 0, 0xFF, 0xD8, 0xFF)) {
+            return MediaType.IMAGE_JPEG_VALUE;
+        }
+        if (startsWith(head, length, 0, 'G', 'I', 'F', '8')) {
+            return MediaType.IMAGE_GIF_VALUE;
+        }
+        if (startsWith(head, length, 0, 'R', 'I', 'F', 'F') && startsWith(head, length, 8, 'W', 'E', 'B', 'P')) {
+            return "image/webp";
+        }
+        if (startsWith(head, length, 0, 'B', 'M')) {
+            return "image/bmp";
+        }
+        return null;
+    }
+
+    public static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static boolean startsWith(byte[] head, int length, int offset, int... magic) {
+        if (length < offset + magic.length) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if ((head[offset + i] & 0xFF) != magic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
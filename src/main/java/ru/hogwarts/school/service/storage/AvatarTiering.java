@@ -0,0 +1,52 @@
+package ru.hogwarts.school.service.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.hogwarts.school.interfaces.AvatarStore;
+import ru.hogwarts.school.model.Avatar;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+
+/**
+ * Chooses where avatar content lives. Images up to the inline threshold are kept in the
+ * {@code avatar_data.inline_data} column and served with a single query; anything larger
+ * is written to the {@link AvatarStore} only, with just its metadata in the database.
+ */
+@Component
+public class AvatarTiering {
+
+    private final AvatarStore avatarStore;
+    private final int inlineThreshold;
+
+    public AvatarTiering(AvatarStore avatarStore,
+                         @Value("${avatar.storage.inline-threshold-bytes:65536}") int inlineThreshold) {
+        this.avatarStore = avatarStore;
+        this.inlineThreshold = inlineThreshold;
+    }
+
+    /**
+     * Stores the content in its tier. The declared size only picks the likely tier; content
+     * that turns out to be larger than the threshold still ends up on disk.
+     */
+    public AvatarContent store(InputStream content, long declaredSize) throws IOException {
+        if (declaredSize < 0 || declaredSize > inlineThreshold) {
+            return AvatarContent.file(avatarStore.store(content));
+        }
+        byte[] head = content.readNBytes(inlineThreshold + 1);
+        if (head.length <= inlineThreshold) {
+            return AvatarContent.inline(head);
+        }
+        return AvatarContent.file(avatarStore.store(new SequenceInputStream(new ByteArrayInputStream(head), content)));
+    }
+
+    public void apply(Avatar avatar, AvatarContent content, String declaredMediaType) {
+        avatar.setStorage(content.storage());
+        avatar.setFilePath(content.path() != null ? content.path().toString() : null);
+        avatar.setFileSize(content.fingerprint().size());
+        avatar.setMediaType(content.fingerprint().mediaTypeOr(declaredMediaType));
+        avatar.setChecksum(content.fingerprint().checksum());
+    }
+}
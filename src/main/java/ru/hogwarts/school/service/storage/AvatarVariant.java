@@ -0,0 +1,10 @@
+package ru.hogwarts.school.service.storage;
+
+import java.nio.file.Path;
+
+public record AvatarVariant(Path path, int size, String mediaType, String checksum) {
+
+    public String tag() {
+        return checksum + "-" + size;
+    }
+}
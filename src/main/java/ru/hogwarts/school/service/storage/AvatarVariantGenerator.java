@@ -0,0 +1,142 @@
+package ru.hogwarts.school.service.storage;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import ru.hogwarts.school.interfaces.AvatarStore;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * Renders downscaled avatar variants on a bounded worker pool. Request threads only
+ * enqueue work; when the queue is full the task is dropped and the original keeps
+ * being served until the next upload of the same content.
+ */
+@Slf4j
+@Component
+public class AvatarVariantGenerator {
+
+    private final AvatarStore avatarStore;
+    private final int[] sizes;
+    private final ThreadPoolExecutor executor;
+
+    public AvatarVariantGenerator(AvatarStore avatarStore,
+                                  @Value("${avatar.variants.sizes:64,256}") int[] sizes,
+                                  @Value("${avatar.variants.threads:2}") int threads,
+                                  @Value("${avatar.variants.queue-capacity:1000}") int queueCapacity) {
+        this.avatarStore = avatarStore;
+        this.sizes = Arrays.stream(sizes).sorted().toArray();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("avatar-variants-"),
+                (task, pool) -> log.warn("Avatar variant queue is full, skipping task"));
+    }
+
+    public void schedule(String checksum, String mediaType) {
+        executor.execute(() -> {
+            try {
+                generate(checksum, mediaType);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Unable to render variants for avatar {}", checksum, e);
+            }
+        });
+    }
+
+    public Optional<AvatarVariant> findVariant(String checksum, String mediaType, int requestedSize) {
+        String format = formatFor(mediaType);
+        for (int size : sizes) {
+            if (size < requestedSize) {
+                continue;
+            }
+            Path variant = avatarStore.resolveVariant(checksum, size, format);
+            if (Files.exists(variant)) {
+                return Optional.of(new AvatarVariant(variant, size, mediaTypeOf(format), checksum));
+            }
+        }
+        return Optional.empty();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    void generate(String checksum, String mediaType) throws IOException {
+        String format = formatFor(mediaType);
+        Path original = avatarStore.resolve(checksum);
+        BufferedImage source = null;
+        for (int size : sizes) {
+            Path variant = avatarStore.resolveVariant(checksum, size, format);
+            if (Files.exists(variant)) {
+                continue;
+            }
+            if (source == null) {
+                source = ImageIO.read(original.toFile());
+                if (source == null) {
+                    return;
+                }
+            }
+            if (size >= Math.max(source.getWidth(), source.getHeight())) {
+                return;
+            }
+            write(scale(source, size, "jpg".equals(format)), format, variant);
+        }
+    }
+
+    private static void write(BufferedImage image, String format, Path target) throws IOException {
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            if (!ImageIO.write(image, format, temp.toFile())) {
+                return;
+            }
+            Files.move(temp, target, ATOMIC_MOVE, REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static BufferedImage scale(BufferedImage source, int size, boolean opaque) {
+        double ratio = (double) size / Math.max(source.getWidth(), source.getHeight());
+        int width = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+        BufferedImage target = new BufferedImage(width, height,
+                opaque ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            if (opaque) {
+                graphics.setColor(Color.WHITE);
+                graphics.fillRect(0, 0, width, height);
+            }
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private static String formatFor(String mediaType) {
+        return MediaType.IMAGE_JPEG_VALUE.equals(mediaType) ? "jpg" : "png";
+    }
+
+    private static String mediaTypeOf(String format) {
+        return "jpg".equals(format) ? MediaType.IMAGE_JPEG_VALUE : MediaType.IMAGE_PNG_VALUE;
+    }
+}
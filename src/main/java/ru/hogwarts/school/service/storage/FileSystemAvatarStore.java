@@ -0,0 +1,105 @@
+package ru.hogwarts.school.service.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.hogwarts.school.interfaces.AvatarStore;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Content-addressed avatar store. Files are named by their SHA-256 checksum and sharded
+ * into two directory levels ({@code ab/cd/abcd...}), so identical uploads share one file.
+ * Content is written to a temporary file first and renamed into place atomically.
+ * Resized variants are kept next to the original as {@code <checksum>.<size>.<format>}.
+ * Every store takes a reference on the file through {@link AvatarFileReferences} and every
+ * release drops one; the file and its variants are deleted with the last reference.
+ */
+@Component
+public class FileSystemAvatarStore implements AvatarStore {
+
+    private static final String TEMP_DIR = ".tmp";
+
+    private final Path root;
+    private final AvatarFileReferences references;
+
+    public FileSystemAvatarStore(@Value("${path.to.avatars.folder}") String avatarsDir,
+                                 AvatarFileReferences references) {
+        this.root = Path.of(avatarsDir);
+        this.references = references;
+    }
+
+    @Override
+    public StoredAvatar store(InputStream content) throws IOException {
+        Path tempDir = Files.createDirectories(root.resolve(TEMP_DIR));
+        Path temp = Files.createTempFile(tempDir, "upload-", ".tmp");
+        try {
+            AvatarFingerprint fingerprint;
+            try (FileChannel channel = FileChannel.open(temp, WRITE)) {
+                fingerprint = AvatarStreams.copy(content, channel);
+            }
+            references.acquire(fingerprint.checksum());
+            try {
+                return place(temp, fingerprint);
+            } catch (IOException | RuntimeException e) {
+                release(fingerprint.checksum());
+                throw e;
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private StoredAvatar place(Path temp, AvatarFingerprint fingerprint) throws IOException {
+        Path target = resolve(fingerprint.checksum());
+        if (Files.exists(target)) {
+            return new StoredAvatar(target, fingerprint, true);
+        }
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(temp, target, ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            return new StoredAvatar(target, fingerprint, true);
+        }
+        return new StoredAvatar(target, fingerprint, false);
+    }
+
+    @Override
+    public Path resolve(String checksum) {
+        return root.resolve(checksum.substring(0, 2))
+                .resolve(checksum.substring(2, 4))
+                .resolve(checksum);
+    }
+
+    @Override
+    public Path resolveVariant(String checksum, int size, String format) {
+        Path original = resolve(checksum);
+        return original.resolveSibling(checksum + "." + size + "." + format);
+    }
+
+    @Override
+    public void release(String checksum) throws IOException {
+        references.release(checksum, () -> delete(checksum));
+    }
+
+    private void delete(String checksum) throws IOException {
+        Path original = resolve(checksum);
+        Files.deleteIfExists(original);
+        if (!Files.isDirectory(original.getParent())) {
+            return;
+        }
+        try (DirectoryStream<Path> variants = Files.newDirectoryStream(original.getParent(), checksum + ".*")) {
+            for (Path variant : variants) {
+                Files.deleteIfExists(variant);
+            }
+        }
+    }
+}
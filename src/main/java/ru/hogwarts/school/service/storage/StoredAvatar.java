@@ -0,0 +1,6 @@
+package ru.hogwarts.school.service.storage;
+
+import java.nio.file.Path;
+
+public record StoredAvatar(Path path, AvatarFingerprint fingerprint, boolean deduplicated) {
+}
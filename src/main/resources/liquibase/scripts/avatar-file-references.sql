@@ -0,0 +1,15 @@
+--liquibase formatted sql
+
+--changeset piotr:10
+
+CREATE TABLE avatar_file (
+                             checksum VARCHAR(64) PRIMARY KEY,
+                             refs BIGINT NOT NULL
+);
+
+INSERT INTO avatar_file (checksum, refs)
+SELECT checksum, COUNT(*)
+FROM avatar
+WHERE checksum IS NOT NULL
+  AND (storage IS NULL OR storage <> 'INLINE')
+GROUP BY checksum;
@@ -0,0 +1,33 @@
+--liquibase formatted sql
+
+--changeset piotr:3
+
+ALTER TABLE avatar ADD COLUMN checksum VARCHAR(64);
+
+--changeset piotr:4
+
+CREATE INDEX avatar_checksum_index ON avatar(checksum);
+
+--changeset piotr:5
+
+CREATE TABLE avatar_data (
+                             avatar_id BIGINT PRIMARY KEY,
+                             data OID,
+                             CONSTRAINT fk_avatar_data_avatar
+                                 FOREIGN KEY (avatar_id)
+                                     REFERENCES avatar (id)
+                                     ON DELETE CASCADE
+);
+
+INSERT INTO avatar_data (avatar_id, data)
+SELECT id, data FROM avatar WHERE data IS NOT NULL;
+
+ALTER TABLE avatar DROP COLUMN data;
+
+--changeset piotr:6
+
+ALTER TABLE avatar ADD COLUMN storage VARCHAR(16);
+
+UPDATE avatar SET storage = 'LOB';
+
+ALTER TABLE avatar_data ADD COLUMN inline_data BYTEA;
@@ -0,0 +1,6 @@
+--liquibase formatted sql
+
+--changeset piotr:8
+
+ALTER TABLE student ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE faculty ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
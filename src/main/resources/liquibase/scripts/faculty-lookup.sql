@@ -0,0 +1,7 @@
+--liquibase formatted sql
+
+--changeset piotr:11 dbms:postgresql
+
+CREATE INDEX faculty_color_index ON faculty (color);
+CREATE INDEX faculty_lower_name_index ON faculty (LOWER(name));
+CREATE INDEX faculty_lower_color_index ON faculty (LOWER(color));
@@ -0,0 +1,7 @@
+--liquibase formatted sql
+
+--changeset piotr:9
+
+CREATE INDEX student_faculty_id_index ON student (faculty_id, id);
+CREATE INDEX student_faculty_name_index ON student (faculty_id, name, id);
+CREATE INDEX student_faculty_age_index ON student (faculty_id, age, id);
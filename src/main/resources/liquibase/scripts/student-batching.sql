@@ -0,0 +1,7 @@
+--liquibase formatted sql
+
+--changeset piotr:7 dbms:postgresql
+
+ALTER SEQUENCE student_id_seq INCREMENT BY 50;
+ALTER SEQUENCE faculty_id_seq INCREMENT BY 50;
+ALTER SEQUENCE avatar_id_seq INCREMENT BY 50;
@@ -0,0 +1,619 @@
+package ru.hogwarts.school.controller;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.client.RestTestClient;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import ru.hogwarts.school.model.Avatar;
+import ru.hogwarts.school.model.AvatarData;
+import ru.hogwarts.school.model.AvatarStorage;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.model.dto.AvatarCacheStatistics;
+import ru.hogwarts.school.model.dto.AvatarImportError;
+import ru.hogwarts.school.model.dto.AvatarImportState;
+import ru.hogwarts.school.model.dto.AvatarImportStatus;
+import ru.hogwarts.school.model.dto.AvatarPage;
+import ru.hogwarts.school.repository.AvatarDataRepository;
+import ru.hogwarts.school.repository.AvatarFileRepository;
+import ru.hogwarts.school.repository.AvatarRepository;
+import ru.hogwarts.school.repository.FacultyRepository;
+import ru.hogwarts.school.repository.StudentsRepository;
+import ru.hogwarts.school.service.AvatarStorageBackfill;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static ru.hogwarts.school.utils.StudentsObjectFactory.createStudentObject;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class AvatarControllerTest {
+
+    private static final byte[] PNG = HexFormat.of().parseHex(
+            "89504e470d0a1a0a0000000d4948445200000001000000010806000000"
+                    + "1f15c4890000000d49444154789c6360000002000001e221bc330000000049454e44ae426082");
+    private static final byte[] GIF = HexFormat.of().parseHex(
+            "47494638396101000100800000000000ffffff21f90401000000002c00000000010001000002024401003b");
+
+    @LocalServerPort
+    private int port;
+    private RestTestClient restTestClient;
+
+    @Autowired
+    AvatarRepository avatarRepository;
+
+    @Autowired
+    AvatarDataRepository avatarDataRepository;
+
+    @Autowired
+    AvatarFileRepository avatarFileRepository;
+
+    @Autowired
+    AvatarStorageBackfill avatarStorageBackfill;
+
+    @Autowired
+    StudentsRepository studentsRepository;
+
+    @Autowired
+    FacultyRepository facultyRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    public void setup() {
+        restTestClient = RestTestClient.bindToServer()
+                .baseUrl("http://localhost:" + port)
+                .build();
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        avatarRepository.deleteAll();
+        avatarFileRepository.deleteAll();
+        studentsRepository.deleteAll();
+        facultyRepository.deleteAll();
+    }
+
+    @Test
+    void uploadAvatar() {
+        Student student = studentsRepository.save(createStudentObject("Harry", 19));
+
+        upload(student, PNG);
+
+        Avatar avatar = avatarRepository.findByStudentId(student.getId()).orElseThrow();
+        assertThat(avatar.getFileSize()).isEqualTo(PNG.length);
+        assertThat(avatar.getMediaType()).isEqualTo(MediaType.IMAGE_PNG_VALUE);
+        assertThat(avatar.getChecksum()).hasSize(64);
+    }
+
+    @Test
+    void uploadAvatarDeduplicatesIdenticalContent() {
+        Student harry = studentsRepository.save(createStudentObject("Harry", 19));
+        Student ron = studentsRepository.save(createStudentObject("Ron", 19));
+
+        upload(harry, PNG);
+        upload(ron, PNG);
+
+        Avatar first = avatarRepository.findByStudentId(harry.getId()).orElseThrow();
+        Avatar second = avatarRepository.findByStudentId(ron.getId()).orElseThrow();
+        String checksum = first.getChecksum();
+        assertThat(second.getFilePath()).isEqualTo(first.getFilePath());
+        assertThat(Path.of(first.getFilePath()))
+                .exists()
+                .endsWith(Path.of(checksum.substring(0, 2), checksum.substring(2, 4), checksum));
+    }
+
+    @Test
+    void replacedAvatarFileIsDeletedWithItsLastReference() {
+        Student harry = studentsRepository.save(createStudentObject("Harry", 19));
+        Student ron = studentsRepository.save(createStudentObject("Ron", 19));
+        upload(harry, PNG);
+        upload(ron, PNG);
+        Avatar avatar = avatarRepository.findByStudentId(harry.getId()).orElseThrow();
+        Path file = Path.of(avatar.getFilePath());
+        assertThat(avatarFileRepository.findRefs(avatar.getChecksum())).contains(2L);
+
+        upload(harry, GIF);
+        assertThat(file).exists();
+        assertThat(avatarFileRepository.findRefs(avatar.getChecksum())).contains(1L);
+
+        upload(ron, GIF);
+        assertThat(file).doesNotExist();
+        assertThat(avatarFileRepository.findRefs(avatar.getChecksum())).isEmpty();
+
+        upload(harry, PNG);
+        assertThat(file).exists();
+        assertThat(download("/avatar/{id}/avatar-from-file", harry)).isEqualTo(PNG);
+    }
+
+    @Test
+    void uploadSmallAvatarIsStoredInline() {
+        Student student = studentsRepository.save(createStudentObject("Harry", 19));
+
+        upload(student, GIF);
+
+        Avatar avatar = avatarRepository.findByStudentId(student.getId()).orElseThrow();
+        assertThat(avatar.getStorage()).isEqualTo(AvatarStorage.INLINE);
+        assertThat(avatar.getFilePath()).isNull();
+        assertThat(avatar.getMediaType()).isEqualTo(MediaType.IMAGE_GIF_VALUE);
+        assertThat(downloadFromDb(student)).isEqualTo(GIF);
+        assertThat(download("/avatar/{id}/avatar-from-file", student)).isEqualTo(GIF);
+    }
+
+    @Test
+    void uploadLargeAvatarIsStoredOnDiskOnly() {
+        Student student = studentsRepository.save(createStudentObject("Harry", 19));
+
+        upload(student, PNG);
+
+        Avatar avatar = avatarRepository.findByStudentId(student.getId()).orElseThrow();
+        assertThat(avatar.getStorage()).isEqualTo(AvatarStorage.FILE);
+        assertThat(Path.of(avatar.getFilePath())).exists();
+        assertThat(avatarDataRepository.findById(avatar.getId())).isEmpty();
+        assertThat(downloadFromDb(student)).isEqualTo(PNG);
+    }
+
+    @Test
+    void backfillMovesLargeObjectsIntoTiers() {
+        Student harry = studentsRepository.save(createStudentObject("Harry", 19));
+        Student ron = studentsRepository.save(createStudentObject("Ron", 19));
+        saveLegacyAvatar(harry, GIF);
+        saveLegacyAvatar(ron, PNG);
+        assertThat(downloadFromDb(ron)).isEqualTo(PNG);
+
+        assertThat(avatarStorageBackfill.backfill()).isEqualTo(2);
+
+        Avatar inline = avatarRepository.findByStudentId(harry.getId()).orElseThrow();
+        assertThat(inline.getStorage()).isEqualTo(AvatarStorage.INLINE);
+        assertThat(avatarDataRepository.findById(inline.getId()).orElseThrow().getInlineData()).isEqualTo(GIF);
+        Avatar file = avatarRepository.findByStudentId(ron.getId()).orElseThrow();
+        assertThat(file.getStorage()).isEqualTo(AvatarStorage.FILE);
+        assertThat(file.getMediaType()).isEqualTo(MediaType.IMAGE_PNG_VALUE);
+        assertThat(avatarDataRepository.findById(file.getId())).isEmpty();
+        assertThat(downloadFromDb(harry)).isEqualTo(GIF);
+        assertThat(download("/avatar/{id}/avatar-from-file", ron)).isEqualTo(PNG);
+        assertThat(avatarStorageBackfill.backfill()).isZero();
+    }
+
+    @Test
+    void uploadOverLargeObjectWaitsForBackfillAndKeepsReferencesBalanced() throws Exception {
+        Student harry = studentsRepository.save(createStudentObject("Harry", 19));
+        Student ron = studentsRepository.save(createStudentObject("Ron", 19));
+        upload(ron, PNG);
+        saveLegacyAvatar(harry, PNG);
+        Long legacyId = avatarRepository.findByStudentId(harry.getId()).orElseThrow().getId();
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> migration = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(
+                status -> {
+                    avatarRepository.findForUpdateById(legacyId);
+                    locked.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }));
+        locked.await();
+        CompletableFuture<Void> replacement = CompletableFuture.runAsync(() -> upload(harry, PNG));
+        assertThatThrownBy(() -> replacement.get(300, TimeUnit.MILLISECONDS)).isInstanceOf(TimeoutException.class);
+        release.countDown();
+        migration.join();
+        replacement.join();
+
+        Avatar avatar = avatarRepository.findByStudentId(harry.getId()).orElseThrow();
+        Path file = Path.of(avatar.getFilePath());
+        assertThat(avatar.getStorage()).isEqualTo(AvatarStorage.FILE);
+        assertThat(avatarDataRepository.findById(avatar.getId())).isEmpty();
+        assertThat(avatarFileRepository.findRefs(avatar.getChecksum())).contains(2L);
+        assertThat(avatarStorageBackfill.backfill()).isZero();
+        assertThat(avatarFileRepository.findRefs(avatar.getChecksum())).contains(2L);
+
+        upload(harry, GIF);
+        upload(ron, GIF);
+        assertThat(avatarFileRepository.findRefs(avatar.getChecksum())).isEmpty();
+        assertThat(file).doesNotExist();
+    }
+
+    @Test
+    void downloadAvatarFromDb() {
+        Student student = studentsRepository.save(createStudentObject("Harry", 19));
+        upload(student, PNG);
+
+        byte[] body = restTestClient.get()
+                .uri("/avatar/{id}/avatar-from-db", student.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.IMAGE_PNG)
+                .expectBody(byte[].class)
+                .returnResult()
+                .getResponseBody();
+
+        assertNotNull(body);
+        assertThat(body).isEqualTo(PNG);
+    }
+
+    @Test
+    void downloadAvatarFromDbServesNewContentAfterUpload() {
+        Student student = studentsRepository.save(createStudentObject("Harry", 19));
+        byte[] updated = Arrays.copyOf(PNG, PNG.length + 1);
+        upload(student, PNG);
+        downloadFromDb(student);
+        downloadFromDb(student);
+
+        upload(student, updated);
+
+        assertThat(downloadFromDb(student)).isEqualTo(updated);
+        AvatarCacheStatistics statistics = restTestClient.get()
+                .uri("/avatar/cache/statistics")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(AvatarCacheStatistics.class)
+                .returnResult()
+                .getResponseBody();
+        assertNotNull(statistics);
+        assertThat(statistics.hits()).isPositive();
+    }
+
+    @Test
+    void downloadLegacyAvatarFromDbIsCached() {
+        Student student = studentsRepository.save(createStudentObject("Harry", 19));
+        saveLegacyAvatar(student, PNG);
+        AvatarCacheStatistics before = getAvatarCacheStatistics();
+
+        assertThat(downloadFromDb(student)).isEqualTo(PNG);
+        assertThat(downloadFromDb(student)).isEqualTo(PNG);
+
+        AvatarCacheStatistics after = getAvatarCacheStatistics();
+        assertThat(after.hits() - before.hits()).isEqualTo(1);
+        assertThat(after.usedBytes() - before.usedBytes()).isEqualTo(PNG.length);
+    }
+
+    private AvatarCacheStatistics getAvatarCacheStatistics() {
+        return restTestClient.get()
+                .uri("/avatar/cache/statistics")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(AvatarCacheStatistics.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    @Test
+    void downloadLargeAvatarFromDbBypassesCache() {
+        Student student = studentsRepository.save(createStudentObject("Harry", 19));
+        byte[] large = new byte[2 * 1024 * 1024 + 7];
+        new Random(42).nextBytes(large);
+        upload(student, large);
+
+        byte[] body = restTestClient.get()
+                .uri("/avatar/{id}/avatar-from-db", student.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentLength(large.length)
+                .expectBody(byte[].class)
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(body).isEqualTo(large);
+        AvatarCacheStatistics statistics = restTestClient.get()
+                .uri("/avatar/cache/statistics")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(AvatarCacheStatistics.class)
+                .returnResult()
+                .getResponseBody();
+        assertNotNull(statistics);
+        assertThat(statistics.usedBytes()).isLessThan(large.length);
+    }
+
+    @Test
+    void downloadAvatarFromFile() {
+        Student student = studentsRepository.save(createStudentObject("Harry", 19));
+        upload(student, PNG);
+
+        byte[] body = restTestClient.get()
+                .uri("/avatar/{id}/avatar-from-file", student.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(byte[].class)
+                .returnResult()
+                .getResponseBody();
+
+        assertNotNull(body);
+        assertThat(body).isEqualTo(PNG);
+    }
+
+    @Test
+    void downloadAvatarFromFileNotModified() {
+        Student student = studentsRepository.save(createStudentObject("Harry", 19));
+        upload(student, PNG);
+        Avatar avatar = avatarRepository.findByStudentId(student.getId()).orElseThrow();
+        String etag = "\"" + avatar.getChecksum() + "\"";
+
+        restTestClient.get()
+                .uri("/avatar/{id}/avatar-from-file", student.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, etag)
+                .expectHeader().exists(HttpHeaders.LAST_MODIFIED);
+
+        restTestClient.get()
+                .uri("/avatar/{id}/avatar-from-file", student.getId())
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .exchange()
+                .expectStatus().isNotModified();
+    }
+
+    @Test
+    void downloadAvatarFromFileRange() {
+        Student student = studentsRepository.save(createStudentObject("Harry", 19));
+        upload(student, PNG);
+
+        byte[] body = restTestClient.get()
+                .uri("/avatar/{id}/avatar-from-file", student.getId())
+                .header(HttpHeaders.RANGE, "bytes=0-7")
+                .exchange()
+                .expectStatus().isEqualTo(206)
+                .expectHeader().valueEquals(HttpHeaders.CONTENT_RANGE, "bytes 0-7/" + PNG.length)
+                .expectBody(byte[].class)
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(body).isEqualTo(Arrays.copyOf(PNG, 8));
+
+        restTestClient.get()
+                .uri("/avatar/{id}/avatar-from-file", student.getId())
+                .header(HttpHeaders.RANGE, "bytes=" + PNG.length + "-")
+                .exchange()
+                .expectStatus().isEqualTo(416);
+    }
+
+    @Test
+    void downloadAvatarVariant() throws Exception {
+        Student student = studentsRepository.save(createStudentObject("Harry", 19));
+        BufferedImage image = new BufferedImage(300, 200, BufferedImage.TYPE_INT_ARGB);
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", png);
+        upload(student, png.toByteArray());
+
+        BufferedImage largest = null;
+        for (int attempt = 0; attempt < 50 && (largest == null || largest.getWidth() != 256); attempt++) {
+            Thread.sleep(100);
+            largest = readImage("/avatar/{id}/avatar-from-db?size=200", student);
+        }
+
+        assertNotNull(largest);
+        assertThat(largest.getWidth()).isEqualTo(256);
+        BufferedImage thumbnail = readImage("/avatar/{id}/avatar-from-file?size=48", student);
+        assertThat(thumbnail.getWidth()).isEqualTo(64);
+        assertThat(thumbnail.getHeight()).isEqualTo(43);
+        assertThat(readImage("/avatar/{id}/avatar-from-db?size=1024", student).getWidth()).isEqualTo(300);
+    }
+
+    @Test
+    void findAvatarsMetadata() {
+        for (String name : List.of("Harry", "Ron", "Hermione")) {
+            upload(studentsRepository.save(createStudentObject(name, 19)), PNG);
+        }
+
+        AvatarPage first = restTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/avatar/metadata")
+                        .queryParam("pageSize", 2)
+                        .queryParam("withTotal", true)
+                        .build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(AvatarPage.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertNotNull(first);
+        assertThat(first.items()).hasSize(2);
+        assertThat(first.total()).isEqualTo(3);
+        assertThat(first.nextCursor()).isEqualTo(first.items().get(1).id());
+
+        AvatarPage second = restTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/avatar/metadata")
+                        .queryParam("pageSize", 2)
+                        .queryParam("after", first.nextCursor())
+                        .build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(AvatarPage.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertNotNull(second);
+        assertThat(second.items()).hasSize(1);
+        assertThat(second.nextCursor()).isNull();
+        assertThat(second.total()).isNull();
+        assertThat(second.items().get(0).mediaType()).isEqualTo(MediaType.IMAGE_PNG_VALUE);
+    }
+
+    @Test
+    void findAvatarsPageableDefaultsToFirstPage() {
+        Student harry = studentsRepository.save(createStudentObject("Harry", 19));
+        upload(harry, GIF);
+
+        restTestClient.get()
+                .uri("/avatar/pageable")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.LINK, "</avatar/metadata>; rel=\"alternate\"")
+                .expectBody()
+                .jsonPath("$.content.length()").isEqualTo(1)
+                .jsonPath("$.number").isEqualTo(0)
+                .jsonPath("$.size").isEqualTo(50)
+                .jsonPath("$.totalElements").isEqualTo(1);
+        restTestClient.get()
+                .uri("/avatar/pageable?pageNumber=0&pageSize=10")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.content.length()").isEqualTo(1)
+                .jsonPath("$.content[0].mediaType").isEqualTo(MediaType.IMAGE_GIF_VALUE)
+                .jsonPath("$.content[0].student.name").isEqualTo("Harry");
+    }
+
+    @Test
+    void importAvatarsFromArchive() throws Exception {
+        Student harry = studentsRepository.save(createStudentObject("Harry", 19));
+        Student ron = studentsRepository.save(createStudentObject("Ron", 19));
+        ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB), "jpg", jpeg);
+
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(archive)) {
+            zip.putNextEntry(new ZipEntry("avatars/"));
+            zip.putNextEntry(new ZipEntry("avatars/" + harry.getId() + ".png"));
+            zip.write(PNG);
+            zip.putNextEntry(new ZipEntry(ron.getId() + ".jpg"));
+            zip.write(jpeg.toByteArray());
+            zip.putNextEntry(new ZipEntry("readme.txt"));
+            zip.write("not an avatar".getBytes());
+            zip.putNextEntry(new ZipEntry("999999999.png"));
+            zip.write(PNG);
+            zip.putNextEntry(new ZipEntry("99999999999999999999.png"));
+            zip.write(PNG);
+        }
+
+        HttpHeaders partHeaders = new HttpHeaders();
+        partHeaders.setContentDispositionFormData("archive", "avatars.zip");
+        partHeaders.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+        MultiValueMap<String, Object> parts = new LinkedMultiValueMap<>();
+        parts.add("archive", new HttpEntity<>(archive.toByteArray(), partHeaders));
+
+        AvatarImportStatus started = restTestClient.post()
+                .uri("/avatar/import")
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .body(parts)
+                .exchange()
+                .expectStatus().isAccepted()
+                .expectBody(AvatarImportStatus.class)
+                .returnResult()
+                .getResponseBody();
+        assertNotNull(started);
+
+        AvatarImportStatus status = started;
+        for (int attempt = 0; attempt < 50 && status.finishedAt() == null; attempt++) {
+            Thread.sleep(100);
+            status = restTestClient.get()
+                    .uri("/avatar/import/{jobId}", started.id())
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody(AvatarImportStatus.class)
+                    .returnResult()
+                    .getResponseBody();
+            assertNotNull(status);
+        }
+
+        assertThat(status.state()).isEqualTo(AvatarImportState.COMPLETED);
+        assertThat(status.entries()).isEqualTo(5);
+        assertThat(status.imported()).isEqualTo(2);
+        assertThat(status.failed()).isEqualTo(3);
+        assertThat(status.errors()).extracting(AvatarImportError::entry)
+                .containsExactlyInAnyOrder("readme.txt", "999999999.png", "99999999999999999999.png");
+        assertThat(downloadFromDb(harry)).isEqualTo(PNG);
+        assertThat(downloadFromDb(ron)).isEqualTo(jpeg.toByteArray());
+        assertThat(avatarRepository.findByStudentId(ron.getId()).orElseThrow().getMediaType())
+                .isEqualTo(MediaType.IMAGE_JPEG_VALUE);
+    }
+
+    @Test
+    void importStatusNotFound() {
+        restTestClient.get()
+                .uri("/avatar/import/{jobId}", UUID.randomUUID())
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    private BufferedImage readImage(String uri, Student student) throws IOException {
+        byte[] body = restTestClient.get()
+                .uri(uri, student.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(byte[].class)
+                .returnResult()
+                .getResponseBody();
+        assertNotNull(body);
+        return ImageIO.read(new ByteArrayInputStream(body));
+    }
+
+    private void saveLegacyAvatar(Student student, byte[] content) {
+        Avatar avatar = avatarRepository.save(Avatar.builder()
+                .student(student)
+                .fileSize(content.length)
+                .mediaType(MediaType.APPLICATION_OCTET_STREAM_VALUE)
+                .storage(AvatarStorage.LOB)
+                .build());
+        avatarDataRepository.save(AvatarData.builder()
+                .avatar(avatar)
+                .data(Hibernate.getLobHelper().createBlob(content))
+                .build());
+    }
+
+    private byte[] downloadFromDb(Student student) {
+        return download("/avatar/{id}/avatar-from-db", student);
+    }
+
+    private byte[] download(String uri, Student student) {
+        return restTestClient.get()
+                .uri(uri, student.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(byte[].class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    private void upload(Student student, byte[] content) {
+        HttpHeaders partHeaders = new HttpHeaders();
+        partHeaders.setContentDispositionFormData("avatar", "avatar.png");
+        partHeaders.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+        MultiValueMap<String, Object> parts = new LinkedMultiValueMap<>();
+        parts.add("avatar", new HttpEntity<>(content, partHeaders));
+
+        restTestClient.post()
+                .uri("/avatar/{studentId}/avatar", student.getId())
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .body(parts)
+                .exchange()
+                .expectStatus().isOk();
+    }
+}
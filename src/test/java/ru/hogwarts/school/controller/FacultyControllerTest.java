@@ -1,5 +1,6 @@
 package ru.hogwarts.school.controller;
 
+import jakarta.persistence.EntityManagerFactory;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -7,15 +8,31 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.client.RestTestClient;
+import ru.hogwarts.school.model.Avatar;
+import ru.hogwarts.school.model.AvatarStorage;
 import ru.hogwarts.school.model.Faculty;
 import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.model.dto.EntityCacheRegionStatistics;
+import ru.hogwarts.school.model.dto.EntityCacheStatistics;
 import ru.hogwarts.school.model.dto.FacultyDto;
+import ru.hogwarts.school.model.dto.FacultyRosterEntry;
+import ru.hogwarts.school.model.dto.FacultyRosterPage;
+import ru.hogwarts.school.model.dto.FacultyStatistics;
+import ru.hogwarts.school.model.dto.MultiGetResponse;
+import ru.hogwarts.school.model.dto.StudentPatch;
+import ru.hogwarts.school.model.dto.FacultyPatch;
+import ru.hogwarts.school.repository.AvatarRepository;
 import ru.hogwarts.school.repository.FacultyRepository;
 import ru.hogwarts.school.repository.StudentsRepository;
+import ru.hogwarts.school.service.stats.FacultyStatisticsView;
+import ru.hogwarts.school.utils.StatementCounter;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
@@ -38,15 +55,28 @@ class FacultyControllerTest {
     @Autowired
     StudentsRepository studentsRepository;
 
+    @Autowired
+    AvatarRepository avatarRepository;
+
+    @Autowired
+    FacultyStatisticsView facultyStatisticsView;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    private StatementCounter statementCounter;
+
     @BeforeEach
     public void setup() {
         restTestClient = RestTestClient.bindToServer()
                 .baseUrl("http://localhost:" + port)
                 .build();
+        statementCounter = new StatementCounter(entityManagerFactory);
     }
 
     @AfterEach
     public void tearDown() {
+        avatarRepository.deleteAll();
         studentsRepository.deleteAll();
         facultyRepository.deleteAll();
     }
@@ -67,6 +97,28 @@ class FacultyControllerTest {
         assertThat(studentResponse.getName()).isEqualTo("Slizerin");
     }
 
+    @Test
+    void getFacultiesByIds() {
+        Faculty gryffindor = facultyRepository.save(createFacultyObject("Gryffindor", "red"));
+        Faculty ravenclaw = facultyRepository.save(createFacultyObject("Ravenclaw", "blue"));
+        createStudentObject("Harry", 17, gryffindor);
+        long unknownId = ravenclaw.getId() + 1000;
+
+        var response = restTestClient.get()
+                .uri("/faculty/batch?ids={ids}", ravenclaw.getId() + "," + gryffindor.getId() + "," + unknownId)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(new ParameterizedTypeReference<MultiGetResponse<Faculty>>() {
+                })
+                .returnResult()
+                .getResponseBody();
+
+        assertNotNull(response);
+        assertThat(response.found()).extracting(Faculty::getName).containsExactly("Ravenclaw", "Gryffindor");
+        assertThat(response.found().get(1).getStudents()).extracting(Student::getName).containsExactly("Harry");
+        assertThat(response.missing()).containsExactly(unknownId);
+    }
+
     @Test
     void createFaculty() {
         FacultyDto dto = new FacultyDto("Gryffindor", "red");
@@ -108,6 +160,41 @@ class FacultyControllerTest {
         assertThat(response.getColor()).isEqualTo("green");
     }
 
+    @Test
+    void patchFaculty() {
+        Faculty faculty = facultyRepository.save(createFacultyObject("Gryffindor", "red"));
+
+        var patched = restTestClient.patch()
+                .uri("/faculty/{id}", faculty.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new FacultyPatch(null, "scarlet"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"1\"")
+                .expectBody(Faculty.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertNotNull(patched);
+        assertThat(patched.getName()).isEqualTo("Gryffindor");
+        assertThat(patched.getColor()).isEqualTo("scarlet");
+
+        restTestClient.patch()
+                .uri("/faculty/{id}", faculty.getId())
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new FacultyPatch("Slytherin", null))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        restTestClient.patch()
+                .uri("/faculty/{id}", faculty.getId())
+                .header(HttpHeaders.IF_MATCH, "not-a-version")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new FacultyPatch("Slytherin", null))
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
     @Test
     void deleteFaculty() {
         Faculty faculty = createFacultyObject("Ravenclaw", "blue");
@@ -184,6 +271,242 @@ class FacultyControllerTest {
         assertThat(response.stream().map(Student::getName).toList())
                 .containsExactlyInAnyOrder("Draco", "Pansy");
     }
+
+    @Test
+    void getFacultyRoster() {
+        Faculty faculty = facultyRepository.save(createFacultyObject("Hufflepuff", "yellow"));
+        Faculty other = facultyRepository.save(createFacultyObject("Ravenclaw", "blue"));
+        createStudentObject("Hannah", 17, faculty);
+        createStudentObject("Cedric", 19, faculty);
+        createStudentObject(null, 18, faculty);
+        createStudentObject("Ernie", 18, faculty);
+        createStudentObject("Zacharias", 16, faculty);
+        createStudentObject("Luna", 17, other);
+
+        List<String> byName = new ArrayList<>();
+        String after = null;
+        do {
+            FacultyRosterPage page = getRoster(faculty.getId(), "sort=name&pageSize=2" + (after == null ? "" : "&after=" + after));
+            assertThat(page.items().size()).isLessThanOrEqualTo(2);
+            page.items().forEach(entry -> byName.add(entry.name()));
+            after = page.nextCursor();
+        } while (after != null);
+        assertThat(byName).containsExactly("Cedric", "Ernie", "Hannah", "Zacharias", null);
+
+        FacultyRosterPage byAge = getRoster(faculty.getId(), "sort=age&minAge=17&maxAge=18&withTotal=true");
+        assertThat(byAge.items()).extracting(FacultyRosterEntry::age).containsExactly(17, 18, 18);
+        assertThat(byAge.total()).isEqualTo(3);
+        assertThat(byAge.nextCursor()).isNull();
+
+        FacultyRosterPage first = getRoster(faculty.getId(), "pageSize=3");
+        FacultyRosterPage second = getRoster(faculty.getId(), "pageSize=3&after=" + first.nextCursor());
+        assertThat(first.items()).hasSize(3);
+        assertThat(second.items()).hasSize(2);
+        assertThat(second.items().get(0).id()).isGreaterThan(first.items().get(2).id());
+        assertThat(second.total()).isNull();
+
+        restTestClient.get()
+                .uri("/faculty/{id}/students", other.getId() + 1000)
+                .exchange()
+                .expectStatus().isNotFound();
+        restTestClient.get()
+                .uri("/faculty/{id}/students?after=bm90LWEtY3Vyc29y", faculty.getId())
+                .exchange()
+                .expectStatus().isBadRequest();
+        restTestClient.get()
+                .uri("/faculty/{id}/students?sort=house", faculty.getId())
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void facultyStatisticsFollowChanges() {
+        Faculty hufflepuff = facultyRepository.save(createFacultyObject("Hufflepuff", "yellow"));
+        Faculty ravenclaw = facultyRepository.save(createFacultyObject("Ravenclaw", "blue"));
+        Student cedric = createStudentObject("Cedric", 19, hufflepuff);
+        createStudentObject("Hannah", 17, hufflepuff);
+        createStudentObject("Ernie", 18, hufflepuff);
+        avatarRepository.save(Avatar.builder()
+                .student(cedric)
+                .mediaType(MediaType.IMAGE_PNG_VALUE)
+                .storage(AvatarStorage.INLINE)
+                .build());
+        facultyStatisticsView.refresh();
+
+        FacultyStatistics statistics = getStatistics(hufflepuff.getId());
+        assertThat(statistics.name()).isEqualTo("Hufflepuff");
+        assertThat(statistics.students()).isEqualTo(3);
+        assertThat(statistics.averageAge()).isEqualTo(18.0);
+        assertThat(statistics.minAge()).isEqualTo(17);
+        assertThat(statistics.maxAge()).isEqualTo(19);
+        assertThat(statistics.studentsWithAvatar()).isEqualTo(1);
+        assertThat(statistics.avatarCoverage()).isEqualTo(1.0 / 3);
+        assertThat(statistics.refreshedAt()).isNotNull();
+        assertThat(getStatistics(ravenclaw.getId()).students()).isZero();
+
+        restTestClient.patch()
+                .uri("/student/{id}", cedric.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new StudentPatch(null, null, ravenclaw.getId()))
+                .exchange()
+                .expectStatus().isOk();
+        facultyStatisticsView.refresh();
+
+        var all = restTestClient.get()
+                .uri("/faculty/stats")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(new ParameterizedTypeReference<List<FacultyStatistics>>() {})
+                .returnResult()
+                .getResponseBody();
+        assertNotNull(all);
+        assertThat(all).extracting(FacultyStatistics::name).contains("Hufflepuff", "Ravenclaw");
+        FacultyStatistics moved = getStatistics(hufflepuff.getId());
+        assertThat(moved.students()).isEqualTo(2);
+        assertThat(moved.maxAge()).isEqualTo(18);
+        assertThat(moved.studentsWithAvatar()).isZero();
+        assertThat(getStatistics(ravenclaw.getId()).studentsWithAvatar()).isEqualTo(1);
+
+        restTestClient.get()
+                .uri("/faculty/{id}/stats", ravenclaw.getId() + 1000)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void facultyCatalogueFollowsChanges() {
+        var created = restTestClient.post()
+                .uri("/faculty")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new FacultyDto("Hufflepuff", "Yellow"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Faculty.class)
+                .returnResult()
+                .getResponseBody();
+        assertNotNull(created);
+
+        assertThat(findByNameOrColor("HUFFLEPUFF")).extracting(Faculty::getId).containsExactly(created.getId());
+        assertThat(findByNameOrColor("yellow")).extracting(Faculty::getId).containsExactly(created.getId());
+        assertThat(findByColor("yellow")).isEmpty();
+
+        restTestClient.patch()
+                .uri("/faculty/{id}", created.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new FacultyPatch(null, "black"))
+                .exchange()
+                .expectStatus().isOk();
+
+        assertThat(findByNameOrColor("yellow")).isEmpty();
+        assertThat(findByColor("black")).extracting(Faculty::getName).containsExactly("Hufflepuff");
+
+        restTestClient.delete()
+                .uri("/faculty/{id}", created.getId())
+                .exchange()
+                .expectStatus().isOk();
+
+        assertThat(findByNameOrColor("hufflepuff")).isEmpty();
+    }
+
+    @Test
+    void facultyLookupsAreServedFromCache() {
+        Faculty faculty = facultyRepository.save(createFacultyObject("Ravenclaw", "blue"));
+        createStudentObject("Luna", 16, faculty);
+        createStudentObject("Cho", 17, faculty);
+        restTestClient.get()
+                .uri("/faculty/{id}", faculty.getId())
+                .exchange()
+                .expectStatus().isOk();
+        EntityCacheStatistics before = getCacheStatistics();
+
+        long statements = statementCounter.statements(() -> {
+            for (int i = 0; i < 2; i++) {
+                restTestClient.get()
+                        .uri("/faculty/{id}", faculty.getId())
+                        .exchange()
+                        .expectStatus().isOk()
+                        .expectBody(Faculty.class)
+                        .value(found -> assertThat(found.getStudents()).hasSize(2));
+            }
+        });
+
+        EntityCacheStatistics after = getCacheStatistics();
+        assertThat(statements).isZero();
+        assertThat(after.entityLoads()).isEqualTo(before.entityLoads());
+        assertThat(after.queryExecutions()).isEqualTo(before.queryExecutions());
+        assertThat(after.queryCacheHits() - before.queryCacheHits()).isEqualTo(2);
+        assertThat(regionHits(after, "faculty-queries") - regionHits(before, "faculty-queries")).isEqualTo(2);
+
+        restTestClient.put()
+                .uri("/faculty/update/{id}", faculty.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new FacultyDto(null, "bronze"))
+                .exchange()
+                .expectStatus().isOk();
+
+        assertThat(findByColor("blue")).isEmpty();
+        assertThat(findByColor("bronze")).extracting(Faculty::getName).containsExactly("Ravenclaw");
+    }
+
+    private Collection<Faculty> findByColor(String color) {
+        return restTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/faculty")
+                        .queryParam("color", color)
+                        .build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(new ParameterizedTypeReference<Collection<Faculty>>() {})
+                .returnResult()
+                .getResponseBody();
+    }
+
+    private FacultyStatistics getStatistics(Long facultyId) {
+        return restTestClient.get()
+                .uri("/faculty/{id}/stats", facultyId)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(FacultyStatistics.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    private FacultyRosterPage getRoster(Long facultyId, String query) {
+        return restTestClient.get()
+                .uri("/faculty/" + facultyId + "/students?" + query)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(FacultyRosterPage.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    private Collection<Faculty> findByNameOrColor(String value) {
+        return restTestClient.get()
+                .uri("/faculty/name_or_color?value={value}", value)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(new ParameterizedTypeReference<Collection<Faculty>>() {})
+                .returnResult()
+                .getResponseBody();
+    }
+
+    private EntityCacheStatistics getCacheStatistics() {
+        return restTestClient.get()
+                .uri("/entity-cache/statistics")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(EntityCacheStatistics.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    private static long regionHits(EntityCacheStatistics statistics, String region) {
+        return statistics.regions().stream()
+                .filter(stats -> stats.region().equals(region))
+                .mapToLong(EntityCacheRegionStatistics::hits)
+                .sum();
+    }
+
     private Faculty createFacultyObject(String name, String color) {
         return Faculty.builder()
                 .name(name)
@@ -0,0 +1,267 @@
+package ru.hogwarts.school.controller;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.client.RestTestClient;
+import ru.hogwarts.school.model.Avatar;
+import ru.hogwarts.school.model.AvatarData;
+import ru.hogwarts.school.model.AvatarStorage;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.model.dto.FacultyPatch;
+import ru.hogwarts.school.model.dto.StudentPatch;
+import ru.hogwarts.school.repository.AvatarDataRepository;
+import ru.hogwarts.school.repository.AvatarRepository;
+import ru.hogwarts.school.repository.FacultyRepository;
+import ru.hogwarts.school.repository.StudentsRepository;
+import ru.hogwarts.school.utils.SqlRecorder;
+import ru.hogwarts.school.utils.StatementCounter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static ru.hogwarts.school.utils.StudentsObjectFactory.createFacultyObject;
+import static ru.hogwarts.school.utils.StudentsObjectFactory.createStudentObject;
+
+/**
+ * Guards the read endpoints against N+1 regressions: each must answer a cold request with a
+ * single SQL statement no matter how many students and faculties are involved, and a partial
+ * update of a cached entity must not read it back before its UPDATE. Avatar listings must not
+ * touch the avatar_data table that holds the image bytes.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class StatementCountTest {
+
+    @LocalServerPort
+    private int port;
+    private RestTestClient restTestClient;
+    private StatementCounter statementCounter;
+
+    @Autowired
+    FacultyRepository facultyRepository;
+
+    @Autowired
+    StudentsRepository studentsRepository;
+
+    @Autowired
+    AvatarRepository avatarRepository;
+
+    @Autowired
+    AvatarDataRepository avatarDataRepository;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    ApplicationContext applicationContext;
+
+    private Faculty gryffindor;
+    private Student harry;
+    private String studentIds;
+    private String facultyIds;
+
+    @BeforeEach
+    public void setup() {
+        restTestClient = RestTestClient.bindToServer()
+                .baseUrl("http://localhost:" + port)
+                .build();
+        statementCounter = new StatementCounter(entityManagerFactory);
+
+        gryffindor = facultyRepository.save(createFacultyObject("Gryffindor", "red"));
+        Faculty ravenclaw = facultyRepository.save(createFacultyObject("Ravenclaw", "blue"));
+        Faculty hufflepuff = facultyRepository.save(createFacultyObject("Hufflepuff", "red"));
+        List<Student> students = new ArrayList<>();
+        for (Faculty faculty : List.of(gryffindor, ravenclaw, hufflepuff)) {
+            for (int i = 0; i < 3; i++) {
+                Student student = createStudentObject(faculty.getName() + " " + i, 17 + i);
+                student.setFaculty(faculty);
+                students.add(student);
+            }
+        }
+        studentsRepository.saveAll(students);
+        harry = students.get(0);
+        studentIds = students.stream().map(student -> String.valueOf(student.getId())).collect(Collectors.joining(","));
+        facultyIds = Stream.of(gryffindor, ravenclaw, hufflepuff)
+                .map(faculty -> String.valueOf(faculty.getId()))
+                .collect(Collectors.joining(","));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        avatarRepository.deleteAll();
+        studentsRepository.deleteAll();
+        facultyRepository.deleteAll();
+    }
+
+    @Test
+    void studentReadsUseOneStatement() {
+        assertSingleStatement("/student/{id}", harry.getId());
+        assertSingleStatement("/student?age={age}", 17);
+        assertSingleStatement("/student/between/{min}?maxAge={max}", 17, 19);
+        assertSingleStatement("/student/faculty/{id}", harry.getId());
+        assertSingleStatement("/student/batch?ids={ids}", studentIds);
+    }
+
+    @Test
+    void ageLookupsAreSerializedInsideOpenEntityManager() {
+        // Age lookups stream their chunks while the response is written.
+        assertThat(applicationContext.getBeansOfType(OpenEntityManagerInViewInterceptor.class)).hasSize(1);
+    }
+
+    @Test
+    void largeAgeLookupsUseOneStatementPerChunk() {
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < 1100; i++) {
+            students.add(createStudentObject("Durmstrang " + i, 30));
+        }
+        studentsRepository.saveAll(students);
+
+        List<Student> found = new ArrayList<>();
+        long statements = statementCounter.coldStatements(() -> found.addAll(restTestClient.get()
+                .uri("/student?age={age}", 30)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(new ParameterizedTypeReference<List<Student>>() {
+                })
+                .returnResult()
+                .getResponseBody()));
+
+        // Three chunks of entity.multi-get.chunk-size ids, in index order.
+        assertThat(statements).isEqualTo(3);
+        assertThat(found).extracting(Student::getId)
+                .containsExactlyElementsOf(students.stream().map(Student::getId).toList());
+    }
+
+    @Test
+    void facultyReadsUseOneStatement() {
+        assertSingleStatement("/faculty/{id}", gryffindor.getId());
+        assertSingleStatement("/faculty?color={color}", "red");
+        assertSingleStatement("/faculty/name_or_color?value={value}", "red");
+        assertSingleStatement("/faculty/student/{id}", gryffindor.getId());
+        assertSingleStatement("/faculty/batch?ids={ids}", facultyIds);
+        assertSingleStatement("/faculty/{id}/students?sort=name&pageSize=2", gryffindor.getId());
+    }
+
+    @Test
+    void unmatchedFacultyLookupsUseNoStatement() {
+        assertThat(statementCounter.coldStatements(() -> get("/faculty?color={color}", "purple"))).isZero();
+        assertThat(statementCounter.coldStatements(() -> get("/faculty/name_or_color?value={value}", "Durmstrang")))
+                .isZero();
+    }
+
+    @Test
+    void hotFacultyLookupsUseNoStatement() {
+        get("/faculty?color={color}", "red");
+        get("/faculty/name_or_color?value={value}", "Gryffindor");
+
+        long statements = statementCounter.statements(() -> {
+            get("/faculty?color={color}", "red");
+            get("/faculty/name_or_color?value={value}", "Gryffindor");
+        });
+
+        assertThat(statements).isZero();
+    }
+
+    @Test
+    void avatarPagesUseOneStatement() {
+        saveAvatars();
+
+        assertSingleStatement("/avatar/pageable");
+        assertSingleStatement("/avatar/pageable?pageNumber=0&pageSize=20");
+        // A full page cannot tell whether more rows follow, so it also counts them.
+        assertThat(statementCounter.coldStatements(() -> get("/avatar/pageable?pageNumber=0&pageSize=5")))
+                .isEqualTo(2);
+    }
+
+    @Test
+    void avatarMetadataReadsSkipTheDataTable() {
+        List<Avatar> avatars = saveAvatars();
+        avatarDataRepository.saveAll(avatars.stream()
+                .map(avatar -> AvatarData.builder().avatar(avatar).inlineData(new byte[64]).build())
+                .toList());
+
+        List<String> metadataSql = SqlRecorder.record(() -> {
+            get("/avatar/metadata?withTotal=true");
+            get("/avatar/pageable");
+            get("/avatar/pageable?pageNumber=1&pageSize=5");
+        });
+        List<String> dataSql = SqlRecorder.record(() -> avatarDataRepository.findByStudentId(harry.getId()));
+
+        assertThat(metadataSql).isNotEmpty().noneMatch(StatementCountTest::readsAvatarData);
+        assertThat(dataSql).anyMatch(StatementCountTest::readsAvatarData);
+    }
+
+    @Test
+    void latestStudentsUseNoStatement() {
+        long statements = statementCounter.coldStatements(() -> get("/student/last?n={n}", 5));
+
+        assertThat(statements).isZero();
+    }
+
+    @Test
+    void hotPartialUpdatesUseOneStatement() {
+        get("/student/{id}", harry.getId());
+        get("/faculty/{id}", gryffindor.getId());
+
+        long studentStatements = statementCounter.statements(() -> restTestClient.patch()
+                .uri("/student/{id}", harry.getId())
+                .contentType(APPLICATION_JSON)
+                .body(new StudentPatch("Harry Potter", null, null))
+                .exchange()
+                .expectStatus().isOk());
+        long facultyStatements = statementCounter.statements(() -> restTestClient.patch()
+                .uri("/faculty/{id}", gryffindor.getId())
+                .contentType(APPLICATION_JSON)
+                .body(new FacultyPatch(null, "scarlet"))
+                .exchange()
+                .expectStatus().isOk());
+
+        assertThat(studentStatements).isEqualTo(1);
+        // The UPDATE plus the roster the faculty response carries.
+        assertThat(facultyStatements).isEqualTo(2);
+    }
+
+    private List<Avatar> saveAvatars() {
+        return avatarRepository.saveAll(studentsRepository.findAll().stream()
+                .map(student -> Avatar.builder()
+                        .student(student)
+                        .filePath(student.getId() + ".png")
+                        .fileSize(64)
+                        .mediaType("image/png")
+                        .storage(AvatarStorage.FILE)
+                        .build())
+                .toList());
+    }
+
+    private static boolean readsAvatarData(String sql) {
+        return sql.toLowerCase(Locale.ROOT).contains("avatar_data");
+    }
+
+    private void assertSingleStatement(String uri, Object... variables) {
+        long statements = statementCounter.coldStatements(() -> get(uri, variables));
+
+        assertThat(statements).as("statements for %s", uri).isEqualTo(1);
+    }
+
+    private void get(String uri, Object... variables) {
+        restTestClient.get()
+                .uri(uri, variables)
+                .exchange()
+                .expectStatus().isOk();
+    }
+}
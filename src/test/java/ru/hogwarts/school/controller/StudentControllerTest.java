@@ -7,15 +7,36 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.client.RestTestClient;
 import ru.hogwarts.school.model.Faculty;
 import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.model.dto.EntityCacheStatistics;
+import ru.hogwarts.school.model.dto.MultiGetResponse;
+import ru.hogwarts.school.model.dto.StudentAgeCount;
+import ru.hogwarts.school.model.dto.StudentAnalyticsGroup;
+import ru.hogwarts.school.model.dto.StudentBatchResponse;
+import ru.hogwarts.school.model.dto.StudentBatchResult;
+import ru.hogwarts.school.model.dto.StudentBatchStatus;
 import ru.hogwarts.school.model.dto.StudentDto;
+import ru.hogwarts.school.model.dto.StudentImportError;
+import ru.hogwarts.school.model.dto.StudentImportReport;
+import ru.hogwarts.school.model.dto.StudentPatch;
 import ru.hogwarts.school.repository.FacultyRepository;
 import ru.hogwarts.school.repository.StudentsRepository;
+import ru.hogwarts.school.service.catalog.FacultyCatalogue;
+import ru.hogwarts.school.service.events.FacultyChangedEvent;
+import ru.hogwarts.school.service.events.FacultySnapshot;
+import ru.hogwarts.school.service.events.StudentSnapshot;
+import ru.hogwarts.school.service.stats.StudentNameIndex;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -37,6 +58,12 @@ class StudentControllerTest {
     @Autowired
     StudentsRepository studentsRepository;
 
+    @Autowired
+    FacultyCatalogue facultyCatalogue;
+
+    @Autowired
+    StudentNameIndex studentNameIndex;
+
     @BeforeEach
     public void setup() {
         restTestClient = RestTestClient.bindToServer()
@@ -70,6 +97,73 @@ class StudentControllerTest {
         assertThat(student.getName()).isEqualTo("Harry");
     }
 
+    @Test
+    void createNewStudentWithFacultyMissingFromCatalogue() {
+        Faculty faculty = facultyRepository.save(createFacultyObject("Durmstrang", "crimson"));
+        // The catalogue missed the insert, as it does for faculties another instance created.
+        facultyCatalogue.onFacultyChanged(new FacultyChangedEvent(
+                new FacultySnapshot(faculty.getId(), faculty.getName(), faculty.getColor()), null));
+
+        restTestClient.post()
+                .uri("/student")
+                .contentType(APPLICATION_JSON)
+                .body(new StudentDto("Viktor", 18, faculty.getId()))
+                .exchange()
+                .expectStatus().isOk();
+
+        assertThat(facultyCatalogue.findIdsByColor("crimson")).containsExactly(faculty.getId());
+    }
+
+    @Test
+    void snapshotsCarryTheCurrentVersion() {
+        Student student = studentsRepository.save(createStudentObject("Harry", 19));
+        patchName(student, "Harry Potter", "\"0\"").expectStatus().isOk();
+
+        List<Student> latest = getStudents("/student/last?n=1");
+        List<Student> found = getStudents("/student/search?q=potter");
+
+        assertThat(latest).extracting(Student::getVersion).containsExactly(1L);
+        assertThat(found).extracting(Student::getVersion).containsExactly(1L);
+        patchName(student, "Harry James Potter", "\"" + latest.get(0).getVersion() + "\"").expectStatus().isOk();
+    }
+
+    @Test
+    void importedRowsFailPreImportVersions() {
+        Student student = studentsRepository.save(createStudentObject("Harry", 19));
+
+        restTestClient.post()
+                .uri("/student/import")
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .body("name,age,facultyId\nHarry,18,\n")
+                .exchange()
+                .expectStatus().isOk();
+
+        patchName(student, "Harry Potter", "\"0\"").expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        patchName(student, "Harry Potter", "\"1\"").expectStatus().isOk();
+    }
+
+    private RestTestClient.ResponseSpec patchName(Student student, String name, String ifMatch) {
+        return restTestClient.patch()
+                .uri("/student/{id}", student.getId())
+                .header(HttpHeaders.IF_MATCH, ifMatch)
+                .contentType(APPLICATION_JSON)
+                .body(new StudentPatch(name, null, null))
+                .exchange();
+    }
+
+    private List<Student> getStudents(String uri) {
+        List<Student> students = restTestClient.get()
+                .uri(uri)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(new ParameterizedTypeReference<List<Student>>() {
+                })
+                .returnResult()
+                .getResponseBody();
+        assertNotNull(students);
+        return students;
+    }
+
     @Test
     void getStudentById() {
         Student student = createStudentObject("Harry", 19);
@@ -86,6 +180,31 @@ class StudentControllerTest {
         assertThat(studentResponse.getName()).isEqualTo("Harry");
     }
 
+    @Test
+    void getStudentsByIds() {
+        Student harry = studentsRepository.save(createStudentObject("Harry", 17));
+        Student ron = studentsRepository.save(createStudentObject("Ron", 17));
+        long unknownId = ron.getId() + 1000;
+
+        var response = restTestClient.get()
+                .uri("/student/batch?ids={ids}", ron.getId() + "," + unknownId + "," + harry.getId() + "," + ron.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(new ParameterizedTypeReference<MultiGetResponse<Student>>() {
+                })
+                .returnResult()
+                .getResponseBody();
+
+        assertNotNull(response);
+        assertThat(response.found()).extracting(Student::getName).containsExactly("Ron", "Harry");
+        assertThat(response.missing()).containsExactly(unknownId);
+
+        restTestClient.get()
+                .uri("/student/batch?ids=")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
     @Test
     void updateStudent() {
         Faculty faculty = createFacultyObject("Slizerin", "yellow");
@@ -107,6 +226,62 @@ class StudentControllerTest {
         assertThat(studentResponse.getName()).isEqualTo("Henry");
     }
 
+    @Test
+    void patchStudent() {
+        Faculty faculty = facultyRepository.save(createFacultyObject("Slizerin", "yellow"));
+        Student student = studentsRepository.save(createStudentObject("Harry", 19));
+
+        var patched = restTestClient.patch()
+                .uri("/student/{id}", student.getId())
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .contentType(APPLICATION_JSON)
+                .body(new StudentPatch("Henry", null, faculty.getId()))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"1\"")
+                .expectBody(Student.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertNotNull(patched);
+        assertThat(patched.getName()).isEqualTo("Henry");
+        assertThat(patched.getAge()).isEqualTo(19);
+        assertThat(facultyRepository.findByStudentId(student.getId()))
+                .map(Faculty::getName)
+                .contains("Slizerin");
+
+        restTestClient.patch()
+                .uri("/student/{id}", student.getId())
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .contentType(APPLICATION_JSON)
+                .body(new StudentPatch(null, 20, null))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        restTestClient.patch()
+                .uri("/student/{id}", student.getId())
+                .header(HttpHeaders.IF_MATCH, "W/\"1\"")
+                .contentType(APPLICATION_JSON)
+                .body(new StudentPatch(null, 20, null))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        restTestClient.patch()
+                .uri("/student/{id}", student.getId())
+                .contentType(APPLICATION_JSON)
+                .body(new StudentPatch(null, 20, faculty.getId() + 1000))
+                .exchange()
+                .expectStatus().isNotFound();
+        restTestClient.patch()
+                .uri("/student/{id}", student.getId() + 1000)
+                .contentType(APPLICATION_JSON)
+                .body(new StudentPatch(null, 20, null))
+                .exchange()
+                .expectStatus().isNotFound();
+
+        assertThat(studentsRepository.findById(student.getId()))
+                .map(Student::getAge)
+                .contains(19);
+    }
+
     @Test
     void deleteStudent() {
         Faculty faculty = createFacultyObject("Slizerin", "yellow");
@@ -119,6 +294,229 @@ class StudentControllerTest {
                 .expectStatus().isOk();
     }
 
+    @Test
+    void studentAggregatesFollowChanges() {
+        Student harry = studentsRepository.save(createStudentObject("Harry", 17));
+        studentsRepository.save(createStudentObject("Hermione", 19));
+        Student ron = studentsRepository.save(createStudentObject("Ron", 21));
+
+        assertThat(getQuantity()).isEqualTo(3L);
+        assertThat(getAverageAge()).isEqualTo(19.0);
+
+        harry.setAge(23);
+        studentsRepository.save(harry);
+        studentsRepository.delete(ron);
+
+        assertThat(getQuantity()).isEqualTo(2L);
+        assertThat(getAverageAge()).isEqualTo(21.0);
+    }
+
+    @Test
+    void ageIndexFollowsChanges() {
+        Student harry = studentsRepository.save(createStudentObject("Harry", 17));
+        studentsRepository.save(createStudentObject("Hermione", 17));
+        studentsRepository.save(createStudentObject("Ron", 18));
+
+        harry.setAge(19);
+        studentsRepository.save(harry);
+
+        List<StudentAgeCount> histogram = restTestClient.get()
+                .uri("/student/age-histogram")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(new ParameterizedTypeReference<List<StudentAgeCount>>() {
+                })
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(histogram).containsExactly(
+                new StudentAgeCount(17, 1),
+                new StudentAgeCount(18, 1),
+                new StudentAgeCount(19, 1));
+
+        List<Student> students = restTestClient.get()
+                .uri("/student/between/{min_age}?maxAge={max_age}", 18, 19)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(new ParameterizedTypeReference<List<Student>>() {
+                })
+                .returnResult()
+                .getResponseBody();
+
+        assertNotNull(students);
+        assertThat(students).extracting(Student::getName).containsExactly("Ron", "Harry");
+    }
+
+    @Test
+    void lastStudentsAreServedFromMemory() {
+        studentsRepository.save(createStudentObject("Harry", 17));
+        Student hermione = studentsRepository.save(createStudentObject("Hermione", 17));
+        Student ron = studentsRepository.save(createStudentObject("Ron", 18));
+        studentsRepository.delete(ron);
+        hermione.setName("Hermione Granger");
+        studentsRepository.save(hermione);
+        EntityCacheStatistics before = getCacheStatistics();
+
+        List<Student> students = restTestClient.get()
+                .uri("/student/last?n=2")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(new ParameterizedTypeReference<List<Student>>() {
+                })
+                .returnResult()
+                .getResponseBody();
+
+        assertNotNull(students);
+        assertThat(students).extracting(Student::getName).containsExactly("Hermione Granger", "Harry");
+        assertThat(students).extracting(Student::getVersion).containsExactly(1L, 0L);
+        EntityCacheStatistics after = getCacheStatistics();
+        assertThat(after.queryExecutions()).isEqualTo(before.queryExecutions());
+        assertThat(after.entityLoads()).isEqualTo(before.entityLoads());
+    }
+
+    @Test
+    void studentAnalyticsFollowChanges() {
+        Faculty gryffindor = facultyRepository.save(createFacultyObject("Gryffindor", "red"));
+        Faculty ravenclaw = facultyRepository.save(createFacultyObject("Ravenclaw", "blue"));
+        Student harry = createStudentObject("Harry", 17);
+        harry.setFaculty(gryffindor);
+        harry = studentsRepository.save(harry);
+        Student hermione = createStudentObject("Hermione", 19);
+        hermione.setFaculty(gryffindor);
+        studentsRepository.save(hermione);
+        Student luna = createStudentObject("Luna", 16);
+        luna.setFaculty(ravenclaw);
+        studentsRepository.save(luna);
+        Student ron = studentsRepository.save(createStudentObject("Ron", 18));
+
+        harry.setAge(21);
+        studentsRepository.save(harry);
+        studentsRepository.delete(ron);
+        EntityCacheStatistics before = getCacheStatistics();
+
+        List<StudentAnalyticsGroup> byFaculty = getAnalytics("/student/analytics?groupBy=faculty");
+        assertThat(byFaculty).containsExactly(
+                new StudentAnalyticsGroup(Map.of("faculty", gryffindor.getId()), 2, 20.0, 19, 21),
+                new StudentAnalyticsGroup(Map.of("faculty", ravenclaw.getId()), 1, 16.0, 16, 16));
+
+        List<StudentAnalyticsGroup> filtered = getAnalytics("/student/analytics?groupBy=faculty,nameLength&minAge=17");
+        assertThat(filtered).extracting(StudentAnalyticsGroup::key).containsExactly(
+                Map.of("faculty", gryffindor.getId(), "nameLength", 5L),
+                Map.of("faculty", gryffindor.getId(), "nameLength", 8L));
+
+        List<StudentAnalyticsGroup> total = getAnalytics("/student/analytics?facultyId=" + gryffindor.getId());
+        assertThat(total).containsExactly(new StudentAnalyticsGroup(Map.of(), 2, 20.0, 19, 21));
+
+        EntityCacheStatistics after = getCacheStatistics();
+        assertThat(after.queryExecutions()).isEqualTo(before.queryExecutions());
+        assertThat(after.entityLoads()).isEqualTo(before.entityLoads());
+
+        restTestClient.get()
+                .uri("/student/analytics?groupBy=house")
+                .exchange()
+                .expectStatus().isBadRequest();
+        restTestClient.get()
+                .uri("/student/analytics?groupBy=age,age")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void searchStudentsByName() {
+        studentsRepository.save(createStudentObject("Ron", 17));
+        studentsRepository.save(createStudentObject("Ronald Weasley", 17));
+        studentsRepository.save(createStudentObject("Aaron", 18));
+        Student hermione = studentsRepository.save(createStudentObject("Hermione", 17));
+        studentsRepository.save(createStudentObject("Veronica", 19));
+        studentsRepository.save(createStudentObject("Harry", 17));
+        hermione.setName("Hermione Granger");
+        studentsRepository.save(hermione);
+        EntityCacheStatistics before = getCacheStatistics();
+
+        assertThat(searchNames("/student/search?q=RON"))
+                .containsExactly("Ron", "Ronald Weasley", "Aaron", "Veronica");
+        assertThat(searchNames("/student/search?q=ron&limit=3"))
+                .containsExactly("Ron", "Ronald Weasley", "Aaron");
+        assertThat(searchNames("/student/search?q=r&limit=2")).containsExactly("Ron", "Ronald Weasley");
+        assertThat(searchNames("/student/search?q=granger")).containsExactly("Hermione Granger");
+        assertThat(studentNameIndex.search("granger", 1)).extracting(StudentSnapshot::version).containsExactly(1L);
+        assertThat(searchNames("/student/search?q=xyz")).isEmpty();
+
+        EntityCacheStatistics after = getCacheStatistics();
+        assertThat(after.queryExecutions()).isEqualTo(before.queryExecutions());
+        assertThat(after.entityLoads()).isEqualTo(before.entityLoads());
+
+        // Prefixes alone do not answer these, so they match inside names through the database.
+        assertThat(searchNames("/student/search?q=r"))
+                .containsExactly("Ron", "Ronald Weasley", "Aaron", "Harry", "Hermione Granger", "Veronica");
+        assertThat(searchNames("/student/search?q=ar")).containsExactly("Aaron", "Harry");
+        assertThat(searchNames("/student/search?q=on")).containsExactly("Aaron", "Hermione Granger", "Ron",
+                "Ronald Weasley", "Veronica");
+        assertThat(studentNameIndex.search("r", 10)).isNull();
+
+        assertThat(studentsRepository.searchSnapshotsByName("ron", "ron%", "%ron%", Limit.of(10)))
+                .extracting(StudentSnapshot::name)
+                .containsExactly("Ron", "Ronald Weasley", "Aaron", "Veronica");
+        restTestClient.get()
+                .uri("/student/search?q=ron&limit=101")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    private List<String> searchNames(String uri) {
+        List<Student> students = restTestClient.get()
+                .uri(uri)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(new ParameterizedTypeReference<List<Student>>() {
+                })
+                .returnResult()
+                .getResponseBody();
+        assertNotNull(students);
+        return students.stream().map(Student::getName).toList();
+    }
+
+    private List<StudentAnalyticsGroup> getAnalytics(String uri) {
+        return restTestClient.get()
+                .uri(uri)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(new ParameterizedTypeReference<List<StudentAnalyticsGroup>>() {
+                })
+                .returnResult()
+                .getResponseBody();
+    }
+
+    private EntityCacheStatistics getCacheStatistics() {
+        return restTestClient.get()
+                .uri("/entity-cache/statistics")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(EntityCacheStatistics.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    private Long getQuantity() {
+        return restTestClient.get()
+                .uri("/student/quantity")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Long.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    private Double getAverageAge() {
+        return restTestClient.get()
+                .uri("/student/average-age")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Double.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
     @Test
     void findStudents() {
         Student student = createStudentObject("Harry", 19);
@@ -179,4 +577,138 @@ class StudentControllerTest {
         assertNotNull(facultyResponse);
         assertThat(facultyResponse.getName()).isEqualTo("Slizerin");
     }
-}
\ No newline at end of file
+
+    @Test
+    void upsertStudentsInBatch() {
+        Faculty faculty = facultyRepository.save(createFacultyObject("Gryffindor", "red"));
+        Student harry = studentsRepository.save(createStudentObject("Harry", 19));
+        List<StudentDto> batch = List.of(
+                new StudentDto("Harry", 20, faculty.getId()),
+                new StudentDto("Ron", 18, faculty.getId()),
+                new StudentDto("Ghost", 10, null),
+                new StudentDto("Ron", 19, null),
+                new StudentDto("Neville", 18, Long.MAX_VALUE));
+
+        StudentBatchResponse response = restTestClient.post()
+                .uri("/student/batch")
+                .contentType(APPLICATION_JSON)
+                .body(batch)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(StudentBatchResponse.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertNotNull(response);
+        assertThat(response.created()).isEqualTo(1);
+        assertThat(response.updated()).isEqualTo(1);
+        assertThat(response.rejected()).isEqualTo(3);
+        assertThat(response.results()).extracting(StudentBatchResult::status).containsExactly(
+                StudentBatchStatus.UPDATED, StudentBatchStatus.CREATED, StudentBatchStatus.REJECTED,
+                StudentBatchStatus.REJECTED, StudentBatchStatus.REJECTED);
+        assertThat(response.results().get(0).id()).isEqualTo(harry.getId());
+        assertThat(studentsRepository.findById(harry.getId()).orElseThrow().getAge()).isEqualTo(20);
+        Student ron = studentsRepository.findById(response.results().get(1).id()).orElseThrow();
+        assertThat(ron.getName()).isEqualTo("Ron");
+        assertThat(ron.getFaculty().getId()).isEqualTo(faculty.getId());
+    }
+
+    @Test
+    void upsertStudentsInBatchRejectsAmbiguousNames() {
+        studentsRepository.save(createStudentObject("Harry", 17));
+        studentsRepository.save(createStudentObject("Harry", 18));
+
+        StudentBatchResponse response = restTestClient.post()
+                .uri("/student/batch")
+                .contentType(APPLICATION_JSON)
+                .body(List.of(new StudentDto("Harry", 20, null), new StudentDto("Ron", 18, null)))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(StudentBatchResponse.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertNotNull(response);
+        assertThat(response.results()).extracting(StudentBatchResult::status)
+                .containsExactly(StudentBatchStatus.REJECTED, StudentBatchStatus.CREATED);
+        assertThat(response.results().get(0).error()).isEqualTo("Ambiguous name: 2 students are named Harry");
+        assertThat(studentsRepository.findByNameIn(List.of("Harry"))).extracting(Student::getAge)
+                .containsExactlyInAnyOrder(17, 18);
+    }
+
+    @Test
+    void exportStudents() {
+        Faculty faculty = facultyRepository.save(createFacultyObject("Gryffindor", "red"));
+        Student harry = createStudentObject("Potter, Harry", 17);
+        harry.setFaculty(faculty);
+        studentsRepository.save(harry);
+        Student luna = studentsRepository.save(createStudentObject("Luna", 18));
+
+        String ndjson = restTestClient.get()
+                .uri("/student/export")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType("application/x-ndjson")
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertNotNull(ndjson);
+        assertThat(ndjson.lines().toList()).containsExactly(
+                "{\"id\":" + harry.getId() + ",\"name\":\"Potter, Harry\",\"age\":17,\"facultyId\":"
+                        + faculty.getId() + ",\"facultyName\":\"Gryffindor\"}",
+                "{\"id\":" + luna.getId() + ",\"name\":\"Luna\",\"age\":18,\"facultyId\":null,\"facultyName\":null}");
+
+        String csv = restTestClient.get()
+                .uri("/student/export?format=csv")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertNotNull(csv);
+        assertThat(csv.lines().toList()).containsExactly(
+                "id,name,age,facultyId,facultyName",
+                harry.getId() + ",\"Potter, Harry\",17," + faculty.getId() + ",Gryffindor",
+                luna.getId() + ",Luna,18,,");
+
+        restTestClient.get()
+                .uri("/student/export?format=xml")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void importStudentsFromCsv() {
+        Faculty faculty = facultyRepository.save(createFacultyObject("Gryffindor", "red"));
+        String csv = "name,age,facultyId\n"
+                + "Harry,18," + faculty.getId() + "\n"
+                + "\"Weasley, Ron\",,\n"
+                + "Ghost,10,\n"
+                + ",18,\n"
+                + "Neville,abc,\n"
+                + "Harry,19,\n";
+
+        StudentImportReport report = restTestClient.post()
+                .uri("/student/import")
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .body(csv)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(StudentImportReport.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertNotNull(report);
+        assertThat(report.rows()).isEqualTo(6);
+        assertThat(report.inserted()).isEqualTo(2);
+        assertThat(report.rejected()).isEqualTo(4);
+        assertThat(report.errors()).extracting(StudentImportError::line).containsExactly(4L, 5L, 6L, 7L);
+        Student ron = studentsRepository.findByNameIn(List.of("Weasley, Ron")).get(0);
+        assertThat(ron.getAge()).isEqualTo(20);
+        Student harry = studentsRepository.findByNameIn(List.of("Harry")).get(0);
+        assertThat(harry.getAge()).isEqualTo(18);
+        assertThat(harry.getFaculty().getId()).isEqualTo(faculty.getId());
+    }
+}
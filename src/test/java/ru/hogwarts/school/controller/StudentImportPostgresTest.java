@@ -0,0 +1,131 @@
+package ru.hogwarts.school.controller;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.client.RestTestClient;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.model.dto.StudentImportError;
+import ru.hogwarts.school.model.dto.StudentImportReport;
+import ru.hogwarts.school.model.dto.StudentPatch;
+import ru.hogwarts.school.repository.FacultyRepository;
+import ru.hogwarts.school.repository.StudentsRepository;
+import ru.hogwarts.school.service.stats.StudentAggregates;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static ru.hogwarts.school.utils.StudentsObjectFactory.createFacultyObject;
+import static ru.hogwarts.school.utils.StudentsObjectFactory.createStudentObject;
+
+/**
+ * Runs the COPY import against a real PostgreSQL database, which H2 cannot stand in for.
+ * Opt-in: set {@code POSTGRES_TEST_URL} (and {@code POSTGRES_TEST_USER},
+ * {@code POSTGRES_TEST_PASSWORD}) to an empty database; Liquibase creates the schema.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@EnabledIfEnvironmentVariable(named = "POSTGRES_TEST_URL", matches = ".+")
+class StudentImportPostgresTest {
+
+    @LocalServerPort
+    private int port;
+    private RestTestClient restTestClient;
+
+    @Autowired
+    FacultyRepository facultyRepository;
+
+    @Autowired
+    StudentsRepository studentsRepository;
+
+    @Autowired
+    StudentAggregates studentAggregates;
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getenv("POSTGRES_TEST_URL"));
+        registry.add("spring.datasource.username", () -> System.getenv("POSTGRES_TEST_USER"));
+        registry.add("spring.datasource.password", () -> System.getenv("POSTGRES_TEST_PASSWORD"));
+        registry.add("spring.jpa.database-platform", () -> "org.hibernate.dialect.PostgreSQLDialect");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "validate");
+    }
+
+    @BeforeEach
+    public void setup() {
+        restTestClient = RestTestClient.bindToServer()
+                .baseUrl("http://localhost:" + port)
+                .build();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        studentsRepository.deleteAll();
+        facultyRepository.deleteAll();
+    }
+
+    @Test
+    void importStudentsThroughCopy() {
+        Faculty faculty = facultyRepository.save(createFacultyObject("Gryffindor", "red"));
+        Student harry = createStudentObject("Harry", 17);
+        studentsRepository.save(harry);
+        String csv = "name,age,facultyId\n"
+                + "Harry,18," + faculty.getId() + "\n"
+                + "Hermione,19,\n"
+                + "Neville,18," + (faculty.getId() + 1000) + "\n"
+                + "Hermione,20,\n"
+                + "Ghost,10,\n";
+
+        StudentImportReport report = importCsv(csv);
+
+        assertNotNull(report);
+        assertThat(report.rows()).isEqualTo(5);
+        assertThat(report.updated()).isEqualTo(1);
+        assertThat(report.inserted()).isEqualTo(1);
+        assertThat(report.rejected()).isEqualTo(3);
+        assertThat(report.errors()).containsExactly(
+                new StudentImportError(4, "Faculty not found"),
+                new StudentImportError(5, "Duplicate name in file"),
+                new StudentImportError(6, "Age must be greater than 16"));
+        Student updated = studentsRepository.findById(harry.getId()).orElseThrow();
+        assertThat(updated.getAge()).isEqualTo(18);
+        assertThat(updated.getFaculty().getId()).isEqualTo(faculty.getId());
+        assertThat(updated.getVersion()).isEqualTo(1L);
+        Student hermione = studentsRepository.findByNameIn(List.of("Hermione")).get(0);
+        assertThat(hermione.getAge()).isEqualTo(19);
+        assertThat(hermione.getVersion()).isZero();
+        restTestClient.patch()
+                .uri("/student/{id}", harry.getId())
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new StudentPatch("Harry Potter", null, null))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        await().atMost(Duration.ofSeconds(10)).until(() -> studentAggregates.count() == 2);
+    }
+
+    private StudentImportReport importCsv(String csv) {
+        return restTestClient.post()
+                .uri("/student/import")
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .body(csv)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(StudentImportReport.class)
+                .returnResult()
+                .getResponseBody();
+    }
+}
@@ -15,7 +15,11 @@ import ru.hogwarts.school.controller.FacultyController;
 import ru.hogwarts.school.model.Faculty;
 import ru.hogwarts.school.model.Student;
 import ru.hogwarts.school.repository.FacultyRepository;
+import ru.hogwarts.school.repository.StudentsRepository;
 import ru.hogwarts.school.service.FacultyServiceImpl;
+import ru.hogwarts.school.service.catalog.FacultyCatalogue;
+import ru.hogwarts.school.service.lookup.EntityMultiGet;
+import ru.hogwarts.school.service.stats.FacultyStatisticsView;
 
 import java.util.List;
 import java.util.Optional;
@@ -37,13 +41,25 @@ class FacultyControllerWebMvcTest {
     @MockitoBean
     private FacultyRepository facultyRepository;
 
+    @MockitoBean
+    private StudentsRepository studentsRepository;
+
+    @MockitoBean
+    private EntityMultiGet entityMultiGet;
+
+    @MockitoBean
+    private FacultyCatalogue facultyCatalogue;
+
+    @MockitoBean
+    private FacultyStatisticsView facultyStatisticsView;
+
     @InjectMocks
     private FacultyController facultyController;
 
     @Test
     void getFacultyInfo() throws Exception {
         Faculty faculty = Faculty.builder().id(1L).name("Slytherin").color("green").build();
-        Mockito.when(facultyRepository.findById(anyLong())).thenReturn(Optional.of(faculty));
+        Mockito.when(facultyRepository.findWithStudentsById(anyLong())).thenReturn(Optional.of(faculty));
 
         mockMvc.perform(MockMvcRequestBuilders
                 .get("/faculty/{id}", 1)
@@ -126,6 +142,28 @@ class FacultyControllerWebMvcTest {
                 .color("green")
                 .build();
 
+        Mockito.when(facultyCatalogue.findIdsByColor("green"))
+                .thenReturn(List.of(1L));
+        Mockito.when(facultyRepository.findByColor("green"))
+                .thenReturn(List.of(f1));
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/faculty").param("color", "green"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].color").value("green"));
+    }
+
+    @Test
+    void findFaculties_CatalogueNotLoaded() throws Exception {
+        Faculty f1 = Faculty.builder()
+                .id(1L)
+                .name("Slytherin")
+                .color("green")
+                .build();
+
+        Mockito.when(facultyCatalogue.findIdsByColor("green"))
+                .thenReturn(null);
         Mockito.when(facultyRepository.findByColor("green"))
                 .thenReturn(List.of(f1));
 
@@ -144,6 +182,8 @@ class FacultyControllerWebMvcTest {
                 .color("green")
                 .build();
 
+        Mockito.when(facultyCatalogue.findIdsByNameOrColorIgnoreCase("green"))
+                .thenReturn(List.of(1L));
         Mockito.when(facultyRepository.findByNameOrColorIgnoreCase("green"))
                 .thenReturn(List.of(f1));
 
@@ -174,7 +214,7 @@ class FacultyControllerWebMvcTest {
                 .students(List.of(s1, s2))
                 .build();
 
-        Mockito.when(facultyRepository.findById(1L))
+        Mockito.when(facultyRepository.findWithStudentsById(1L))
                 .thenReturn(Optional.of(faculty));
 
         mockMvc.perform(MockMvcRequestBuilders
@@ -1,8 +1,10 @@
 package ru.hogwarts.school.controller.mocked;
 
+import org.hamcrest.Matchers;
 import org.json.JSONObject;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
@@ -15,11 +17,19 @@ import ru.hogwarts.school.model.Student;
 import ru.hogwarts.school.repository.FacultyRepository;
 import ru.hogwarts.school.repository.StudentsRepository;
 import ru.hogwarts.school.service.StudentServiceImpl;
+import ru.hogwarts.school.service.catalog.FacultyCatalogue;
+import ru.hogwarts.school.service.events.StudentSnapshot;
+import ru.hogwarts.school.service.lookup.EntityMultiGet;
+import ru.hogwarts.school.service.stats.RecentStudents;
+import ru.hogwarts.school.service.stats.StudentAgeIndex;
+import ru.hogwarts.school.service.stats.StudentAggregates;
+import ru.hogwarts.school.service.stats.StudentNameIndex;
 
 import java.util.List;
 import java.util.Optional;
 
 import static org.hamcrest.Matchers.*;
+import static org.mockito.AdditionalMatchers.aryEq;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -38,6 +48,24 @@ class StudentControllerWebMvcTest {
     @MockitoBean
     private FacultyRepository facultyRepository;
 
+    @MockitoBean
+    private StudentAggregates studentAggregates;
+
+    @MockitoBean
+    private StudentAgeIndex studentAgeIndex;
+
+    @MockitoBean
+    private RecentStudents recentStudents;
+
+    @MockitoBean
+    private EntityMultiGet entityMultiGet;
+
+    @MockitoBean
+    private FacultyCatalogue facultyCatalogue;
+
+    @MockitoBean
+    private StudentNameIndex studentNameIndex;
+
     @Test
     void createNewStudent() throws Exception {
         Faculty faculty = Faculty.builder()
@@ -53,8 +81,10 @@ class StudentControllerWebMvcTest {
                 .faculty(faculty)
                 .build();
 
-        when(facultyRepository.findById(1L))
-                .thenReturn(Optional.of(faculty));
+        when(facultyCatalogue.contains(1L))
+                .thenReturn(true);
+        when(facultyRepository.getReferenceById(1L))
+                .thenReturn(faculty);
         when(studentsRepository.save(any(Student.class)))
                 .thenReturn(savedStudent);
 
@@ -133,8 +163,10 @@ class StudentControllerWebMvcTest {
         // Мокаем репозитории
         when(studentsRepository.findById(1L))
                 .thenReturn(Optional.of(existingStudent));
-        when(facultyRepository.findById(2L))
-                .thenReturn(Optional.of(newFaculty));
+        when(facultyCatalogue.contains(2L))
+                .thenReturn(true);
+        when(facultyRepository.getReferenceById(2L))
+                .thenReturn(newFaculty);
         when(studentsRepository.save(any(Student.class)))
                 .thenReturn(updatedStudent);
 
@@ -191,7 +223,9 @@ class StudentControllerWebMvcTest {
                 .age(17)
                 .build();
 
-        when(studentsRepository.findByAge(17))
+        when(studentAgeIndex.findIds(17, 17))
+                .thenReturn(new long[]{1L, 2L});
+        when(entityMultiGet.streamStudents(aryEq(new long[]{1L, 2L})))
                 .thenReturn(List.of(s1, s2));
 
         mockMvc.perform(MockMvcRequestBuilders
@@ -230,7 +264,9 @@ class StudentControllerWebMvcTest {
                 .age(16)
                 .build();
 
-        when(studentsRepository.findByAgeBetween(16, 18))
+        when(studentAgeIndex.findIds(16, 18))
+                .thenReturn(new long[]{3L, 1L, 2L});
+        when(entityMultiGet.streamStudents(aryEq(new long[]{3L, 1L, 2L})))
                 .thenReturn(List.of(s3, s1, s2));
 
         mockMvc.perform(MockMvcRequestBuilders
@@ -238,7 +274,26 @@ class StudentControllerWebMvcTest {
                         .param("maxAge", "18"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(3)))
-                .andExpect(jsonPath("$[*].name", containsInAnyOrder("Harry", "Hermione", "Luna")));
+                .andExpect(jsonPath("$[*].name", Matchers.contains("Luna", "Harry", "Hermione")));
+    }
+
+    @Test
+    void findStudentsByAge_IndexNotReady() throws Exception {
+        Student s1 = Student.builder()
+                .id(1L)
+                .name("Harry")
+                .age(17)
+                .build();
+
+        when(studentAgeIndex.findIds(17, 17))
+                .thenReturn(null);
+        when(studentsRepository.findByAge(17))
+                .thenReturn(List.of(s1));
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/student").param("age", "17"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].name", Matchers.contains("Harry")));
     }
 
     @Test
@@ -259,6 +314,55 @@ class StudentControllerWebMvcTest {
                 .andExpect(jsonPath("$", hasSize(0)));
     }
 
+    @Test
+    void findLastStudents() throws Exception {
+        when(recentStudents.maxPage())
+                .thenReturn(50);
+        when(recentStudents.latest(2))
+                .thenReturn(List.of(new StudentSnapshot(3L, "Luna", 17, null, 0L),
+                        new StudentSnapshot(2L, "Ron", 18, 1L, 2L)));
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/student/last").param("n", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].name", Matchers.contains("Luna", "Ron")))
+                .andExpect(jsonPath("$[*].version", Matchers.contains(0, 2)));
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/student/last").param("n", "51"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(studentsRepository);
+    }
+
+    @Test
+    void searchStudents_IndexNotReady() throws Exception {
+        when(studentNameIndex.maxResults())
+                .thenReturn(100);
+        when(studentNameIndex.search("Her", 5))
+                .thenReturn(null);
+        when(studentsRepository.searchSnapshotsByName("her", "her%", "%her%", Limit.of(5)))
+                .thenReturn(List.of(new StudentSnapshot(2L, "Hermione", 17, null, 0L)));
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/student/search").param("q", "Her").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].name", Matchers.contains("Hermione")));
+
+        when(studentNameIndex.search("He", 5))
+                .thenReturn(null);
+        when(studentsRepository.searchSnapshotsByName("he", "he%", "%he%", Limit.of(5)))
+                .thenReturn(List.of(new StudentSnapshot(2L, "Hermione", 17, null, 0L)));
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/student/search").param("q", "He").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].name", Matchers.contains("Hermione")));
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/student/search").param("q", " "))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void getStudentFaculty() throws Exception {
         Faculty faculty = Faculty.builder()
@@ -273,9 +377,10 @@ class StudentControllerWebMvcTest {
                 .age(17)
                 .faculty(faculty)
                 .build();
+        faculty.setStudents(List.of(student));
 
-        when(studentsRepository.findById(1L))
-                .thenReturn(Optional.of(student));
+        when(facultyRepository.findByStudentId(1L))
+                .thenReturn(Optional.of(faculty));
 
         mockMvc.perform(MockMvcRequestBuilders
                         .get("/student/faculty/{studentId}", 1))
@@ -286,7 +391,7 @@ class StudentControllerWebMvcTest {
 
     @Test
     void getStudentFaculty_StudentNotFound() throws Exception {
-        when(studentsRepository.findById(999L))
+        when(facultyRepository.findByStudentId(999L))
                 .thenReturn(Optional.empty());
 
         mockMvc.perform(MockMvcRequestBuilders
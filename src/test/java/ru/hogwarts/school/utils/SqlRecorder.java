@@ -0,0 +1,35 @@
+package ru.hogwarts.school.utils;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Statement inspector registered by the test profile that keeps the SQL Hibernate sends while
+ * {@link #record} runs, including statements issued by the server threads handling requests.
+ */
+public class SqlRecorder implements StatementInspector {
+
+    private static volatile List<String> recorded;
+
+    public static synchronized List<String> record(Runnable action) {
+        List<String> statements = new CopyOnWriteArrayList<>();
+        recorded = statements;
+        try {
+            action.run();
+        } finally {
+            recorded = null;
+        }
+        return List.copyOf(statements);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        List<String> statements = recorded;
+        if (statements != null) {
+            statements.add(sql);
+        }
+        return sql;
+    }
+}
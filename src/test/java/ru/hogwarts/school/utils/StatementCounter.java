@@ -0,0 +1,31 @@
+package ru.hogwarts.school.utils;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+/**
+ * Counts the JDBC statements Hibernate prepares while an action runs, either against the
+ * caches as they are or, for {@link #coldStatements}, after emptying the second-level and
+ * query caches so the count is the one a cold request pays.
+ */
+public class StatementCounter {
+
+    private final SessionFactory sessionFactory;
+
+    public StatementCounter(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    public long coldStatements(Runnable action) {
+        sessionFactory.getCache().evictAllRegions();
+        return statements(action);
+    }
+
+    public long statements(Runnable action) {
+        Statistics statistics = sessionFactory.getStatistics();
+        long before = statistics.getPrepareStatementCount();
+        action.run();
+        return statistics.getPrepareStatementCount() - before;
+    }
+}